@@ -0,0 +1,94 @@
+// Teste de carga (k6) do agendamento e da listagem de consultas.
+//
+// Rodar uma vez em cada modo e comparar "http_reqs" (vazão) e "http_req_duration p(99)":
+//   ./mvnw spring-boot:run                                          (threads de plataforma)
+//   ./mvnw spring-boot:run -Dspring-boot.run.profiles=virtual      (threads virtuais + LimiteAdmissao)
+//   k6 run -e BASE_URL=http://localhost:8080 -e PACIENTES=1000 carga/agendamento.js
+//
+// Respostas 400/409 (regras de agendamento) e 503 (admissão recusada) são esperadas sob carga e
+// aparecem separadas em "status". As exportações (respostas assíncronas) ocupam uma vaga de admissão
+// até o fim do download.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const PACIENTES = parseInt(__ENV.PACIENTES || '1000');
+const ESPECIALIDADES = ['CARDIOLOGIA', 'DERMATOLOGIA', 'GINICOLOGIA', 'ORTOPEDIA'];
+
+const status = new Counter('status');
+
+export const options = {
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+  scenarios: {
+    agendamento: {
+      executor: 'ramping-arrival-rate',
+      exec: 'agendar',
+      startRate: 50,
+      timeUnit: '1s',
+      preAllocatedVUs: 200,
+      maxVUs: 2000,
+      stages: [
+        { target: 500, duration: '30s' },
+        { target: 500, duration: '1m' },
+        { target: 0, duration: '10s' },
+      ],
+    },
+    listagem: {
+      executor: 'constant-arrival-rate',
+      exec: 'listar',
+      rate: 200,
+      timeUnit: '1s',
+      duration: '1m40s',
+      preAllocatedVUs: 100,
+      maxVUs: 1000,
+    },
+    exportacao: {
+      executor: 'constant-arrival-rate',
+      exec: 'exportar',
+      rate: 2,
+      timeUnit: '1s',
+      duration: '1m40s',
+      preAllocatedVUs: 20,
+      maxVUs: 100,
+    },
+  },
+};
+
+// Dia útil e horário cheio aleatórios nos próximos 60 dias
+function horarioAleatorio() {
+  const data = new Date();
+  data.setDate(data.getDate() + 1 + Math.floor(Math.random() * 60));
+  if (data.getDay() === 0) {
+    data.setDate(data.getDate() + 1);
+  }
+  const hora = 7 + Math.floor(Math.random() * 12);
+  const dia = data.toISOString().substring(0, 10);
+  return `${dia}T${String(hora).padStart(2, '0')}:00:00`;
+}
+
+export function agendar() {
+  const corpo = JSON.stringify({
+    pacienteId: 1 + Math.floor(Math.random() * PACIENTES),
+    dataHora: horarioAleatorio(),
+    especialidade: ESPECIALIDADES[Math.floor(Math.random() * ESPECIALIDADES.length)],
+    motivoConsulta: 'Teste de carga',
+  });
+  const resposta = http.post(`${BASE_URL}/consultas`, corpo, { headers: { 'Content-Type': 'application/json' } });
+  status.add(1, { status: String(resposta.status) });
+  check(resposta, { 'sem erro 5xx (exceto 503)': (r) => r.status < 500 || r.status === 503 });
+}
+
+export function listar() {
+  const resposta = http.get(`${BASE_URL}/consultas?size=20`);
+  status.add(1, { status: String(resposta.status) });
+  check(resposta, { 'listagem 200': (r) => r.status === 200 });
+}
+
+export function exportar() {
+  const de = new Date().toISOString().substring(0, 10);
+  const ate = new Date(Date.now() + 30 * 24 * 3600 * 1000).toISOString().substring(0, 10);
+  const resposta = http.get(`${BASE_URL}/consultas/exportacao?de=${de}&ate=${ate}`);
+  status.add(1, { status: String(resposta.status) });
+  check(resposta, { 'exportação 200 ou 503': (r) => r.status === 200 || r.status === 503 });
+}
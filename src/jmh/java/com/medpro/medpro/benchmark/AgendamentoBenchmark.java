@@ -0,0 +1,135 @@
+package com.medpro.medpro.benchmark;
+
+import com.medpro.medpro.enums.Especialidade;
+import com.medpro.medpro.model.dto.DadosMedicoAtivo;
+import com.medpro.medpro.repository.ConsultaRepository;
+import com.medpro.medpro.repository.MedicoRepository;
+import com.medpro.medpro.service.EscolhaAleatoria;
+import com.medpro.medpro.service.EscolhaMenosOcupado;
+import com.medpro.medpro.service.OcupacaoAgenda;
+import com.medpro.medpro.service.SeletorMedico;
+import com.medpro.medpro.service.regras.ContextoAgendamento;
+import com.medpro.medpro.service.regras.FonteCadastros;
+import com.medpro.medpro.service.regras.MotivoRejeicao;
+import com.medpro.medpro.service.regras.MotorRegrasAgendamento;
+import com.medpro.medpro.service.regras.SituacaoCadastros;
+import com.medpro.medpro.service.regras.ValidadorAntecedencia;
+import com.medpro.medpro.service.regras.ValidadorDomingo;
+import com.medpro.medpro.service.regras.ValidadorEspecialidadeObrigatoria;
+import com.medpro.medpro.service.regras.ValidadorHorarioFuncionamento;
+import com.medpro.medpro.service.regras.ValidadorMedicoAtivo;
+import com.medpro.medpro.service.regras.ValidadorMedicoOcupado;
+import com.medpro.medpro.service.regras.ValidadorPacienteAtivo;
+import com.medpro.medpro.service.regras.ValidadorPacienteNoDia;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verificações do agendamento respondidas em memória, motor de regras completo (cadastros em memória)
+ * e escolha automática de médico, com parte dos médicos da especialidade já ocupada no horário.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AgendamentoBenchmark {
+
+	@Param({ "100", "1000" })
+	int medicos;
+
+	@Param({ "0.5", "0.95" })
+	double ocupados;
+
+	private OcupacaoAgenda ocupacao;
+	private SeletorMedico aleatoria;
+	private SeletorMedico menosOcupado;
+	private LocalDateTime horario;
+	private MotorRegrasAgendamento regras;
+	private FonteCadastros cadastros;
+
+	@Setup
+	public void setUp() {
+		horario = proximoDiaUtil().atTime(10, 0);
+
+		var consultaRepo = mock(ConsultaRepository.class);
+		when(consultaRepo.listarOcupacaoAPartirDe(any())).thenReturn(List.of());
+		ocupacao = new OcupacaoAgenda(consultaRepo);
+		ocupacao.carregar();
+
+		var medicoRepo = mock(MedicoRepository.class);
+		when(medicoRepo.listarAtivosPorEspecialidade()).thenReturn(LongStream.rangeClosed(1, medicos)
+				.mapToObj(id -> new DadosMedicoAtivo(id, Especialidade.CARDIOLOGIA))
+				.toList());
+		when(medicoRepo.findById(any())).thenReturn(Optional.empty());
+
+		for (long id = 1; id <= medicos * ocupados; id++) {
+			ocupacao.registrar(id, id, horario);
+		}
+
+		aleatoria = new SeletorMedico(medicoRepo, ocupacao, new EscolhaAleatoria(ocupacao));
+		aleatoria.carregar();
+		menosOcupado = new SeletorMedico(medicoRepo, ocupacao, new EscolhaMenosOcupado(ocupacao));
+		menosOcupado.carregar();
+
+		regras = new MotorRegrasAgendamento(List.of(new ValidadorHorarioFuncionamento(), new ValidadorDomingo(),
+				new ValidadorAntecedencia(), new ValidadorEspecialidadeObrigatoria(), new ValidadorPacienteNoDia(ocupacao),
+				new ValidadorMedicoOcupado(ocupacao), new ValidadorPacienteAtivo(), new ValidadorMedicoAtivo()));
+		var ativos = new SituacaoCadastros(true, true, Especialidade.CARDIOLOGIA);
+		cadastros = (pacienteId, medicoId) -> ativos;
+	}
+
+	// Todas as regras aprovadas: médico e paciente fora da faixa já ocupada
+	@Benchmark
+	public MotivoRejeicao motorRegras() {
+		var contexto = new ContextoAgendamento((long) medicos + 1, (long) medicos, horario, null, LocalDateTime.now(), cadastros);
+		return regras.validar(contexto);
+	}
+
+	@Benchmark
+	public boolean medicoOcupado() {
+		return ocupacao.medicoOcupado(1L, horario);
+	}
+
+	@Benchmark
+	public boolean pacientePossuiConsultaNoDia() {
+		return ocupacao.pacientePossuiConsultaNoDia(1L, horario);
+	}
+
+	@Benchmark
+	public Optional<Long> escolhaAleatoria() {
+		return aleatoria.escolherIdMedicoLivre(Especialidade.CARDIOLOGIA, horario);
+	}
+
+	@Benchmark
+	public Optional<Long> escolhaMenosOcupado() {
+		return menosOcupado.escolherIdMedicoLivre(Especialidade.CARDIOLOGIA, horario);
+	}
+
+	private static LocalDate proximoDiaUtil() {
+		var dia = LocalDate.now().plusDays(2);
+		return dia.getDayOfWeek() == DayOfWeek.SUNDAY ? dia.plusDays(1) : dia;
+	}
+}
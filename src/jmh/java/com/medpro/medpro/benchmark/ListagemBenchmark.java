@@ -0,0 +1,83 @@
+package com.medpro.medpro.benchmark;
+
+import com.medpro.medpro.MedproApplication;
+import com.medpro.medpro.model.dto.DadosListagemConsulta;
+import com.medpro.medpro.repository.ConsultaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listagem de consultas pelo repositório, paginando por OFFSET e por cursor na mesma profundidade.
+ * <p>
+ * Usa o MySQL local do docker-compose (as migrations usam recursos do MySQL, como ENUM e colunas
+ * geradas, então não há banco embarcado equivalente). Popule a tabela antes para medir páginas profundas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ListagemBenchmark {
+
+	private static final int TAMANHO = 100;
+
+	@Param({ "0", "100" })
+	int pagina;
+
+	private ConfigurableApplicationContext contexto;
+	private ConsultaRepository consultaRepo;
+	private DadosListagemConsulta ultimaDaPaginaAnterior;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		var aplicacao = new SpringApplication(MedproApplication.class);
+		aplicacao.setWebApplicationType(WebApplicationType.NONE);
+		contexto = aplicacao.run("--spring.main.banner-mode=off", "--logging.level.root=warn");
+		consultaRepo = contexto.getBean(ConsultaRepository.class);
+
+		if (pagina > 0) {
+			var anterior = consultaRepo.listar(PageRequest.of(pagina - 1, TAMANHO, Sort.by("dataHora", "id")));
+			ultimaDaPaginaAnterior = anterior.getContent().isEmpty() ? null : anterior.getContent().get(anterior.getNumberOfElements() - 1);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public Page<DadosListagemConsulta> porOffset() {
+		return consultaRepo.listar(PageRequest.of(pagina, TAMANHO, Sort.by("dataHora", "id")));
+	}
+
+	@Benchmark
+	public List<DadosListagemConsulta> porCursor() {
+		var limite = PageRequest.ofSize(TAMANHO + 1);
+		if (ultimaDaPaginaAnterior == null) {
+			return consultaRepo.listarPrimeiras(limite);
+		}
+		return consultaRepo.listarApos(ultimaDaPaginaAnterior.dataHora(), ultimaDaPaginaAnterior.id(), limite);
+	}
+}
@@ -0,0 +1,92 @@
+package com.medpro.medpro.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medpro.medpro.enums.Especialidade;
+import com.medpro.medpro.model.dto.DadosCadastroMedico;
+import com.medpro.medpro.model.dto.DadosCadastroPaciente;
+import com.medpro.medpro.model.dto.DadosDetalhamentoConsulta;
+import com.medpro.medpro.model.dto.DadosEndereco;
+import com.medpro.medpro.model.dto.DadosListagemConsulta;
+import com.medpro.medpro.model.dto.DadosListagemMedico;
+import com.medpro.medpro.model.entity.Consulta;
+import com.medpro.medpro.model.entity.Medico;
+import com.medpro.medpro.model.entity.Paciente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Mapeamento entidade -> DTO e serialização JSON das respostas de listagem e detalhamento,
+ * com o ObjectMapper configurado como no Spring.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializacaoBenchmark {
+
+	@Param({ "10", "100" })
+	int tamanhoPagina;
+
+	private ObjectMapper mapper;
+	private List<Medico> medicos;
+	private Page<DadosListagemConsulta> paginaConsultas;
+	private Consulta consulta;
+
+	@Setup
+	public void setUp() {
+		mapper = Jackson2ObjectMapperBuilder.json().build();
+		var endereco = new DadosEndereco("Rua das Flores", "Centro", "01001000", "São Paulo", "SP", "100", null);
+		medicos = IntStream.range(0, tamanhoPagina)
+				.mapToObj(i -> new Medico(new DadosCadastroMedico("Médico " + i, "medico" + i + "@medpro.com",
+						"11999990000", String.valueOf(100000 + i), Especialidade.CARDIOLOGIA, endereco)))
+				.toList();
+		var agora = LocalDateTime.now();
+		paginaConsultas = new PageImpl<>(IntStream.range(0, tamanhoPagina)
+				.mapToObj(i -> new DadosListagemConsulta((long) i, 1L, "Médico " + i, 2L, "Paciente " + i,
+						agora.plusHours(i), "AGENDADA"))
+				.toList(), PageRequest.of(0, tamanhoPagina), 10_000);
+
+		consulta = new Consulta();
+		consulta.setMedico(medicos.get(0));
+		consulta.setPaciente(new Paciente(new DadosCadastroPaciente("Paciente", "paciente@medpro.com", "123.456.789-00",
+				"11988880000", endereco)));
+		consulta.setDataHora(agora);
+		consulta.setSituacao("AGENDADA");
+	}
+
+	@Benchmark
+	public byte[] listagemMedicos() throws Exception {
+		var pagina = new PageImpl<>(medicos, PageRequest.of(0, tamanhoPagina), 10_000).map(DadosListagemMedico::new);
+		return mapper.writeValueAsBytes(pagina);
+	}
+
+	@Benchmark
+	public byte[] listagemConsultas() throws Exception {
+		return mapper.writeValueAsBytes(paginaConsultas);
+	}
+
+	@Benchmark
+	public byte[] detalhamentoConsulta() throws Exception {
+		return mapper.writeValueAsBytes(new DadosDetalhamentoConsulta(consulta));
+	}
+}
@@ -0,0 +1,59 @@
+package com.medpro.medpro.config;
+
+import com.medpro.medpro.infra.replica.MonitorReplica;
+import com.medpro.medpro.infra.replica.RoteamentoLeitura;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Leituras na réplica MySQL ({@code medpro.replica.habilitada=true}; ver {@code replica} no docker-compose).
+ * <p>
+ * Substitui o DataSource do Spring Boot por dois pools Hikari, primária ({@code spring.datasource.*}) e
+ * réplica ({@code medpro.replica.*}), atrás de um {@link RoteamentoLeitura}. Só vão para a réplica as
+ * transações {@code @Transactional(readOnly = true)}: listagens, busca, disponibilidade, estatísticas e exportação.
+ * Flyway, JPA e JdbcTemplate usam o DataSource roteado e, fora dessas transações, a primária.
+ */
+@Configuration
+@ConditionalOnProperty(name = "medpro.replica.habilitada", havingValue = "true")
+public class ReplicaConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaria(DataSourceProperties propriedades) {
+        return propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("medpro.replica.hikari")
+    public HikariDataSource replica(@Value("${medpro.replica.url}") String url,
+            @Value("${medpro.replica.username:${spring.datasource.username}}") String usuario,
+            @Value("${medpro.replica.password:${spring.datasource.password}}") String senha) {
+        return DataSourceBuilder.create().type(HikariDataSource.class).url(url).username(usuario).password(senha).build();
+    }
+
+    @Bean
+    public MonitorReplica monitorReplica(@Qualifier("replica") DataSource replica,
+            @Value("${medpro.replica.atraso-maximo:2s}") Duration atrasoMaximo, MeterRegistry registry) {
+        return new MonitorReplica(replica, atrasoMaximo, registry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaria") DataSource primaria, @Qualifier("replica") DataSource replica,
+            MonitorReplica monitor) {
+        return new LazyConnectionDataSourceProxy(new RoteamentoLeitura(primaria, replica, monitor));
+    }
+}
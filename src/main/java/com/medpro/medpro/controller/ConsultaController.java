@@ -1,177 +1,382 @@
 package com.medpro.medpro.controller;
 
+import com.medpro.medpro.enums.Especialidade;
+import com.medpro.medpro.enums.SituacaoSolicitacao;
+import com.medpro.medpro.infra.concorrencia.Versoes;
+import com.medpro.medpro.infra.http.PoliticasCache;
+import com.medpro.medpro.infra.metricas.MetricasAgendamento;
+import com.medpro.medpro.infra.paginacao.Cursor;
 import com.medpro.medpro.model.dto.DadosAgendamentoConsulta;
 import com.medpro.medpro.model.dto.DadosCancelamentoConsulta;
 import com.medpro.medpro.model.dto.DadosDetalhamentoConsulta;
+import com.medpro.medpro.model.dto.DadosDetalhamentoMedico;
+import com.medpro.medpro.model.dto.DadosDetalhamentoPaciente;
+import com.medpro.medpro.model.dto.DadosEstatisticasDia;
+import com.medpro.medpro.model.dto.DadosHorariosLivres;
 import com.medpro.medpro.model.dto.DadosListagemConsulta;
+import com.medpro.medpro.model.dto.DadosPaginaCursor;
+import com.medpro.medpro.model.dto.DadosReagendamentoConsulta;
+import com.medpro.medpro.model.dto.DadosResultadoImportacao;
+import com.medpro.medpro.model.dto.DadosSolicitacaoAgendamento;
 import com.medpro.medpro.model.entity.Consulta;
-import com.medpro.medpro.model.entity.Medico;
 import com.medpro.medpro.repository.ConsultaRepository;
 import com.medpro.medpro.repository.MedicoRepository;
 import com.medpro.medpro.repository.PacienteRepository;
+import com.medpro.medpro.service.AgendaMedico;
+import com.medpro.medpro.service.AgendamentoAssincrono;
+import com.medpro.medpro.service.ArquivamentoConsultas;
+import com.medpro.medpro.service.DetalhamentoCadastros;
+import com.medpro.medpro.service.DisponibilidadeAgenda;
+import com.medpro.medpro.service.EstatisticasAgenda;
+import com.medpro.medpro.service.ExportacaoConsultas;
+import com.medpro.medpro.service.ImportacaoConsultas;
+import com.medpro.medpro.service.OcupacaoAgenda;
+import com.medpro.medpro.service.SeletorMedico;
+import com.medpro.medpro.service.regras.ContextoAgendamento;
+import com.medpro.medpro.service.regras.FonteCadastros;
+import com.medpro.medpro.service.regras.MotivoRejeicao;
+import com.medpro.medpro.service.regras.MotorRegrasAgendamento;
 
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.time.DayOfWeek;
+import java.io.InputStream;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/consultas")
 public class ConsultaController {
 
+    // Respostas de recusa montadas uma vez: são imutáveis e iguais para todas as requisições
+    private static final Map<MotivoRejeicao, ResponseEntity<String>> RECUSAS = respostasDeRecusa();
+
     private final ConsultaRepository consultaRepo;
     private final MedicoRepository medicoRepo;
     private final PacienteRepository pacienteRepo;
+    private final OcupacaoAgenda ocupacao;
+    private final SeletorMedico seletorMedico;
+    private final ImportacaoConsultas importacao;
+    private final ExportacaoConsultas exportacao;
+    private final DetalhamentoCadastros detalhamento;
+    private final DisponibilidadeAgenda disponibilidade;
+    private final MetricasAgendamento metricas;
+    private final MotorRegrasAgendamento regras;
+    private final FonteCadastros cadastros;
+    private final AgendamentoAssincrono assincrono;
+    private final EstatisticasAgenda estatisticas;
+    private final ArquivamentoConsultas arquivamento;
+    private final AgendaMedico agenda;
 
-    public ConsultaController(ConsultaRepository consultaRepo, MedicoRepository medicoRepo, PacienteRepository pacienteRepo) {
+    public ConsultaController(ConsultaRepository consultaRepo, MedicoRepository medicoRepo, PacienteRepository pacienteRepo,
+            OcupacaoAgenda ocupacao, SeletorMedico seletorMedico, ImportacaoConsultas importacao,
+            ExportacaoConsultas exportacao, DetalhamentoCadastros detalhamento, DisponibilidadeAgenda disponibilidade,
+            MetricasAgendamento metricas, MotorRegrasAgendamento regras, FonteCadastros cadastros,
+            AgendamentoAssincrono assincrono, EstatisticasAgenda estatisticas, ArquivamentoConsultas arquivamento,
+            AgendaMedico agenda) {
         this.consultaRepo = consultaRepo;
         this.medicoRepo = medicoRepo;
         this.pacienteRepo = pacienteRepo;
+        this.ocupacao = ocupacao;
+        this.seletorMedico = seletorMedico;
+        this.importacao = importacao;
+        this.exportacao = exportacao;
+        this.detalhamento = detalhamento;
+        this.disponibilidade = disponibilidade;
+        this.metricas = metricas;
+        this.regras = regras;
+        this.cadastros = cadastros;
+        this.assincrono = assincrono;
+        this.estatisticas = estatisticas;
+        this.arquivamento = arquivamento;
+        this.agenda = agenda;
     }
 
     @PostMapping
     @Transactional
     public ResponseEntity<?> agendar(@RequestBody @Valid DadosAgendamentoConsulta dados, UriComponentsBuilder uriBuilder) {
-        
-        // --- 1. Validações de Horário ---
 
-        // Regra: Consultas com duração de 1h, funcionamento das 07:00 às 19:00
-        // Portanto, a última consulta pode começar às 18:00 (para acabar as 19:00)
-        var dataConsulta = dados.dataHora();
-        var horaConsulta = dataConsulta.toLocalTime();
-        var abertura = LocalTime.of(7, 0);
-        var encerramento = LocalTime.of(18, 0);
-
-        if (horaConsulta.isBefore(abertura) || horaConsulta.isAfter(encerramento)) {
-            return ResponseEntity.badRequest().body("Consulta fora do horário de funcionamento (07:00 às 19:00).");
-        }
+        // --- 1. Regras de agendamento (calendário e índice em memória antes do banco) ---
 
-        // Regra: Funcionamento de Segunda a Sábado (domingo fechado)
-        var domingo = dataConsulta.getDayOfWeek().equals(DayOfWeek.SUNDAY);
-        if (domingo) {
-            return ResponseEntity.badRequest().body("A clínica não funciona aos domingos.");
-        }
-
-        // Regra: Antecedência mínima de 30 minutos
-        var agora = LocalDateTime.now();
-        var diferencaEmMinutos = Duration.between(agora, dataConsulta).toMinutes();
-        if (diferencaEmMinutos < 30) {
-            return ResponseEntity.badRequest().body("A consulta deve ser agendada com no mínimo 30 minutos de antecedência.");
-        }
-
-        // --- 2. Validações de Paciente ---
-        
-        var paciente = pacienteRepo.findById(dados.pacienteId())
-                .orElseThrow(() -> new RuntimeException("Paciente não encontrado")); // Ou tratar com ResponseEntity
-
-        // Regra: Paciente inativo
-        if (!paciente.getAtivo()) {
-            return ResponseEntity.badRequest().body("Consulta não pode ser agendada com paciente inativo.");
-        }
-
-        // Regra: Não permitir mais de uma consulta no mesmo dia para o mesmo paciente
-        var primeiroHorario = dataConsulta.withHour(7).withMinute(0).withSecond(0);
-        var ultimoHorario = dataConsulta.withHour(18).withMinute(0).withSecond(0);
-        if (consultaRepo.existsByPacienteIdAndDataHoraBetweenAndSituacaoNot(paciente.getId(), primeiroHorario, ultimoHorario, "CANCELADA")) {
-            return ResponseEntity.badRequest().body("Paciente já possui uma consulta agendada para esse dia.");
+        var etapa = metricas.iniciar();
+        var dataConsulta = dados.dataHora();
+        var contexto = new ContextoAgendamento(dados.pacienteId(), dados.medicoId(), dataConsulta, dados.especialidade(),
+                LocalDateTime.now(), cadastros);
+        var recusa = regras.validar(contexto);
+        if (recusa != null) {
+            return rejeitar(recusa, contexto.especialidade());
         }
-        
-        // --- 3. Escolha e Validação do Médico ---
-
-        Medico medico;
+        metricas.etapa("regras", etapa);
 
-        if (dados.medicoId() != null) {
-            // Médico escolhido pelo usuário
-            medico = medicoRepo.findById(dados.medicoId())
-                    .orElseThrow(() -> new RuntimeException("Médico não encontrado"));
+        // --- 2. Escolha do Médico ---
 
-            // Regra: Médico inativo
-            if (!medico.isAtivo()) {
-                return ResponseEntity.badRequest().body("Consulta não pode ser agendada com médico inativo.");
-            }
-
-            // Regra: Médico já possui consulta nessa hora
-            if (consultaRepo.existsByMedicoIdAndDataHoraAndSituacaoNot(medico.getId(), dataConsulta, "CANCELADA")) {
-                return ResponseEntity.badRequest().body("Médico já possui outra consulta agendada nesse mesmo horário.");
-            }
-
-        } else {
+        etapa = metricas.iniciar();
+        var medicoId = dados.medicoId();
+        if (medicoId == null) {
             // Regra: Escolha aleatória de médico
-            if (dados.especialidade() == null) {
-                return ResponseEntity.badRequest().body("Especialidade é obrigatória quando o médico não é escolhido.");
-            }
-
-            var medicoLivre = medicoRepo.escolherMedicoAleatorioLivreNaData(dados.especialidade(), dataConsulta);
+            var medicoLivre = seletorMedico.escolherIdMedicoLivre(dados.especialidade(), dataConsulta);
             if (medicoLivre.isEmpty()) {
-                return ResponseEntity.badRequest().body("Não existe médico disponível para essa especialidade nessa data/hora.");
+                return rejeitar(MotivoRejeicao.SEM_MEDICO_LIVRE, dados.especialidade());
             }
-            medico = medicoLivre.get();
+            medicoId = medicoLivre.get();
         }
+        metricas.etapa("medico", etapa);
 
-        // --- 4. Salvar Consulta ---
+        // --- 3. Salvar Consulta ---
 
+        etapa = metricas.iniciar();
         var consulta = new Consulta();
-        consulta.setMedico(medico);
-        consulta.setPaciente(paciente);
-        consulta.setDataHora(dataConsulta);
-        consulta.setSituacao("AGENDADA");
-        consulta.setMotivoConsulta(dados.motivoConsulta());
+        // Referências sem SELECT: existência e situação já foram conferidas pelas regras
+        consulta.setMedico(medicoRepo.getReferenceById(medicoId));
+        consulta.setPaciente(pacienteRepo.getReferenceById(dados.pacienteId()));
+        consulta.agendar(dataConsulta, dados.motivoConsulta());
 
         consultaRepo.save(consulta);
+        ocupacao.registrar(medicoId, dados.pacienteId(), dataConsulta);
+        estatisticas.agendada(medicoId, dataConsulta);
+        agenda.alterada(medicoId, dataConsulta);
+        metricas.etapa("gravacao", etapa);
 
         var uri = uriBuilder.path("/consultas/{id}").buildAndExpand(consulta.getId()).toUri();
-        return ResponseEntity.created(uri).body(new DadosDetalhamentoConsulta(consulta));
+        var medico = detalhamento.medico(medicoId);
+        var paciente = detalhamento.paciente(dados.pacienteId());
+        return ResponseEntity.created(uri).eTag(etag(consulta, medico, paciente))
+                .body(new DadosDetalhamentoConsulta(consulta, medico, paciente));
+    }
+
+    // Agendamento assíncrono com chave de idempotência: 202 enquanto a solicitação aguarda a gravação em lote
+    @PostMapping("/solicitacoes")
+    public ResponseEntity<DadosSolicitacaoAgendamento> solicitar(@RequestHeader("Idempotency-Key") String chave,
+            @RequestBody @Valid DadosAgendamentoConsulta dados, UriComponentsBuilder uriBuilder) {
+        return respostaDaSolicitacao(assincrono.receber(chave, dados), uriBuilder);
+    }
+
+    @GetMapping("/solicitacoes/{chave}")
+    public ResponseEntity<DadosSolicitacaoAgendamento> acompanhar(@PathVariable String chave, UriComponentsBuilder uriBuilder) {
+        return assincrono.consultar(chave)
+                .map(solicitacao -> respostaDaSolicitacao(solicitacao, uriBuilder))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Importação em lote (migração de clínica parceira): uma consulta por linha, em NDJSON ou CSV
+    @PostMapping(path = "/importacao", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<DadosResultadoImportacao> importar(@RequestHeader(HttpHeaders.CONTENT_TYPE) String tipo, InputStream corpo) {
+        var resultado = importacao.importar(corpo, tipo.startsWith("text/csv"));
+        return ResponseEntity.ok(resultado);
     }
 
     @DeleteMapping("/{id}")
     @Transactional
-    public ResponseEntity<?> cancelar(@PathVariable Long id, @RequestBody(required = false) DadosCancelamentoConsulta dados) {
+    public ResponseEntity<?> cancelar(@PathVariable Long id, @RequestBody(required = false) DadosCancelamentoConsulta dados,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var etapa = metricas.iniciar();
         var consulta = consultaRepo.findById(id).orElseThrow(() -> new RuntimeException("Consulta não encontrada"));
+        // Cancelamento e reagendamento concorrentes: If-Match e @Version garantem que só um vence
+        Versoes.conferir(ifMatch, etag(consulta, detalhamento.medico(consulta.getMedico().getId()),
+                detalhamento.paciente(consulta.getPaciente().getId())));
 
         // Regra: Antecedência de cancelamento (ex: 24h)
         var agora = LocalDateTime.now();
         var diferencaEmHoras = Duration.between(agora, consulta.getDataHora()).toHours();
 
         if (diferencaEmHoras < 24) {
-            return ResponseEntity.badRequest().body("Consulta só pode ser cancelada com antecedência mínima de 24h.");
+            return rejeitar(MotivoRejeicao.CANCELAMENTO_ANTECEDENCIA, null);
         }
 
         // Regra: Situação 'AGENDADA'
         if (!"AGENDADA".equals(consulta.getSituacao())) {
-            return ResponseEntity.badRequest().body("Apenas consultas agendadas podem ser canceladas.");
+            return rejeitar(MotivoRejeicao.CANCELAMENTO_SITUACAO, null);
         }
         
         var motivo = (dados != null) ? dados.motivoCancelamento() : null;
         consulta.cancelar(motivo);
-        
+        ocupacao.liberar(consulta.getMedico().getId(), consulta.getPaciente().getId(), consulta.getDataHora());
+        estatisticas.cancelada(consulta.getMedico().getId(), consulta.getDataHora(), motivo);
+        agenda.alterada(consulta.getMedico().getId(), consulta.getDataHora());
+        metricas.etapa("cancelamento", etapa);
+
         return ResponseEntity.noContent().build();
     }
+
+    // Troca de horário numa única transação, no lugar de cancelar e agendar de novo (sem a regra de 24h do
+    // cancelamento e sem perder o horário atual para outro paciente no meio do caminho)
+    @PutMapping("/{id}/reagendamento")
+    @Transactional
+    public ResponseEntity<?> reagendar(@PathVariable Long id, @RequestBody @Valid DadosReagendamentoConsulta dados,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var etapa = metricas.iniciar();
+        var consulta = consultaRepo.findById(id).orElseThrow(() -> new RuntimeException("Consulta não encontrada"));
+        var medicoId = consulta.getMedico().getId();
+        var pacienteId = consulta.getPaciente().getId();
+        var medico = detalhamento.medico(medicoId);
+        var paciente = detalhamento.paciente(pacienteId);
+        Versoes.conferir(ifMatch, etag(consulta, medico, paciente));
+
+        if (!"AGENDADA".equals(consulta.getSituacao())) {
+            return rejeitar(MotivoRejeicao.REAGENDAMENTO_SITUACAO, medico.especialidade());
+        }
+        var origem = consulta.getDataHora();
+        var novaDataHora = dados.dataHora();
+        if (origem.equals(novaDataHora)) {
+            return rejeitar(MotivoRejeicao.REAGENDAMENTO_MESMO_HORARIO, medico.especialidade());
+        }
+        // Mesmo médico e paciente: só as regras do novo horário e do médico
+        var contexto = ContextoAgendamento.reagendamento(pacienteId, medicoId, origem, novaDataHora, LocalDateTime.now(), cadastros);
+        var recusa = regras.validarReagendamento(contexto);
+        if (recusa != null) {
+            return rejeitar(recusa, medico.especialidade());
+        }
+
+        consulta.agendar(novaDataHora, dados.motivoConsulta() != null ? dados.motivoConsulta() : consulta.getMotivoConsulta());
+        // UPDATE com a condição de versão agora: conflito de horário (chave única) ou edição concorrente
+        // viram 409 nesta requisição, e a ETag da resposta já sai com a versão nova
+        consultaRepo.flush();
+        ocupacao.liberar(medicoId, pacienteId, origem);
+        ocupacao.registrar(medicoId, pacienteId, novaDataHora);
+        estatisticas.reagendada(medicoId, origem, novaDataHora);
+        agenda.alterada(medicoId, origem);
+        agenda.alterada(medicoId, novaDataHora);
+        metricas.etapa("reagendamento", etapa);
+
+        return ResponseEntity.ok().eTag(etag(consulta, medico, paciente))
+                .body(new DadosDetalhamentoConsulta(consulta, medico, paciente));
+    }
     
     @GetMapping
+    @Transactional(readOnly = true)
     public ResponseEntity<Page<DadosListagemConsulta>> listar(@PageableDefault(size = 10, sort = {"dataHora"}) Pageable paginacao) {
-        var page = consultaRepo.findAll(paginacao).map(c -> new DadosListagemConsulta(
-                c.getId(), 
-                c.getMedico().getId(), 
-                c.getMedico().getNome(), 
-                c.getPaciente().getId(), 
-                c.getPaciente().getNome(), 
-                c.getDataHora(), 
-                c.getSituacao()));
-        return ResponseEntity.ok(page);
+        var page = consultaRepo.listar(paginacao);
+        return ResponseEntity.ok().cacheControl(PoliticasCache.LISTAGEM).body(page);
+    }
+
+    // Listagem por cursor (dataHora, id): para rolagem profunda, sem OFFSET nem count
+    @GetMapping("/cursor")
+    @Transactional(readOnly = true)
+    public ResponseEntity<DadosPaginaCursor<DadosListagemConsulta>> listarPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DadosPaginaCursor.TAMANHO_PADRAO) int tamanho) {
+        tamanho = DadosPaginaCursor.limitar(tamanho);
+        var limite = PageRequest.ofSize(tamanho + 1);
+        List<DadosListagemConsulta> linhas;
+        if (cursor == null) {
+            linhas = consultaRepo.listarPrimeiras(limite);
+        } else {
+            var posicao = Cursor.decodificar(cursor);
+            linhas = consultaRepo.listarApos(posicao.dataHora(), posicao.id(), limite);
+        }
+        return ResponseEntity.ok().cacheControl(PoliticasCache.LISTAGEM)
+                .body(DadosPaginaCursor.de(linhas, tamanho, c -> new Cursor(c.dataHora(), c.id())));
+    }
+
+    // Horários livres (médico, dia, horários) da especialidade no período [de, ate]
+    @GetMapping("/disponibilidade")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> disponibilidade(
+            @RequestParam Especialidade especialidade,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+        if (ate.isBefore(de) || de.plusDays(DisponibilidadeAgenda.MAXIMO_DIAS - 1).isBefore(ate)) {
+            return ResponseEntity.badRequest().body("Período inválido: informe até " + DisponibilidadeAgenda.MAXIMO_DIAS + " dias.");
+        }
+        List<DadosHorariosLivres> livres = disponibilidade.buscar(especialidade, de, ate);
+        return ResponseEntity.ok().cacheControl(PoliticasCache.LISTAGEM).body(livres);
+    }
+
+    // Painel da gestão: totais diários por especialidade ou, com medicoId, do médico
+    @GetMapping("/estatisticas")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> estatisticas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(required = false) Especialidade especialidade,
+            @RequestParam(required = false) Long medicoId) {
+        if (ate.isBefore(de) || de.plusDays(EstatisticasAgenda.MAXIMO_DIAS - 1).isBefore(ate)) {
+            return ResponseEntity.badRequest().body("Período inválido: informe até " + EstatisticasAgenda.MAXIMO_DIAS + " dias.");
+        }
+        List<DadosEstatisticasDia> dias = medicoId != null
+                ? estatisticas.doMedico(medicoId, de, ate)
+                : estatisticas.porEspecialidade(de, ate, especialidade);
+        return ResponseEntity.ok().cacheControl(PoliticasCache.LISTAGEM).body(dias);
+    }
+
+    // Exportação do período [de, ate] em NDJSON (padrão) ou CSV, escrita direto na resposta
+    @GetMapping("/exportacao")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(required = false) String situacao,
+            @RequestParam(required = false) Especialidade especialidade,
+            @RequestParam(defaultValue = "ndjson") String formato) {
+        if (ate.isBefore(de)) {
+            return ResponseEntity.badRequest().build();
+        }
+        var csv = "csv".equalsIgnoreCase(formato);
+        StreamingResponseBody corpo = saida -> exportacao.exportar(de, ate, situacao, especialidade, csv, saida);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=consultas-" + de + "-" + ate + (csv ? ".csv" : ".ndjson"))
+                .body(corpo);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> detalhar(@PathVariable Long id) {
-        var consulta = consultaRepo.findById(id).orElseThrow(() -> new RuntimeException("Consulta não encontrada"));
-        return ResponseEntity.ok(new DadosDetalhamentoConsulta(consulta));
+        var ativa = consultaRepo.findById(id);
+        if (ativa.isEmpty()) {
+            // Histórico movido para consultas_arquivo (somente leitura, sem ETag)
+            return arquivamento.detalhar(id)
+                    .<ResponseEntity<?>>map(arquivada -> ResponseEntity.ok().cacheControl(PoliticasCache.DETALHE).body(arquivada))
+                    .orElseThrow(() -> new RuntimeException("Consulta não encontrada"));
+        }
+        var consulta = ativa.get();
+        // Médico e paciente vêm do cache; os proxies LAZY só fornecem os ids
+        var medico = detalhamento.medico(consulta.getMedico().getId());
+        var paciente = detalhamento.paciente(consulta.getPaciente().getId());
+        // Com If-None-Match igual à ETag, o Spring responde 304 sem serializar o corpo
+        return ResponseEntity.ok()
+                .eTag(etag(consulta, medico, paciente))
+                .cacheControl(PoliticasCache.DETALHE)
+                .body(new DadosDetalhamentoConsulta(consulta, medico, paciente));
+    }
+
+    // A consulta embute médico e paciente: a ETag muda se qualquer um dos três mudar
+    private static String etag(Consulta consulta, DadosDetalhamentoMedico medico, DadosDetalhamentoPaciente paciente) {
+        return Versoes.etag(consulta.getVersao(), medico.versao(), paciente.versao());
+    }
+
+    private ResponseEntity<DadosSolicitacaoAgendamento> respostaDaSolicitacao(DadosSolicitacaoAgendamento solicitacao,
+            UriComponentsBuilder uriBuilder) {
+        if (solicitacao.situacao() != SituacaoSolicitacao.PENDENTE) {
+            return ResponseEntity.ok(solicitacao);
+        }
+        var uri = uriBuilder.path("/consultas/solicitacoes/{chave}").buildAndExpand(solicitacao.chave()).toUri();
+        return ResponseEntity.accepted().location(uri).body(solicitacao);
+    }
+
+    private ResponseEntity<String> rejeitar(MotivoRejeicao motivo, Especialidade especialidade) {
+        metricas.rejeicao(motivo.regra(), especialidade);
+        return RECUSAS.get(motivo);
+    }
+
+    private static Map<MotivoRejeicao, ResponseEntity<String>> respostasDeRecusa() {
+        var respostas = new EnumMap<MotivoRejeicao, ResponseEntity<String>>(MotivoRejeicao.class);
+        for (var motivo : MotivoRejeicao.values()) {
+            respostas.put(motivo, ResponseEntity.badRequest().body(motivo.mensagem()));
+        }
+        return respostas;
     }
 }
\ No newline at end of file
@@ -2,28 +2,46 @@ package com.medpro.medpro.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.medpro.medpro.model.dto.DadosAgendaSemana;
 import com.medpro.medpro.model.dto.DadosAtualizacaoMedico;
 import com.medpro.medpro.model.dto.DadosCadastroMedico;
 import com.medpro.medpro.model.dto.DadosDetalhamentoMedico;
 import com.medpro.medpro.model.dto.DadosListagemMedico;
+import com.medpro.medpro.model.dto.DadosPaginaCursor;
+import com.medpro.medpro.infra.concorrencia.Versoes;
+import com.medpro.medpro.infra.http.PoliticasCache;
+import com.medpro.medpro.infra.paginacao.Cursor;
 import com.medpro.medpro.model.entity.Medico;
 import com.medpro.medpro.repository.MedicoRepository;
+import com.medpro.medpro.service.AgendaMedico;
+import com.medpro.medpro.service.BuscaCadastros;
+import com.medpro.medpro.service.DetalhamentoCadastros;
+import com.medpro.medpro.service.SeletorMedico;
 
-import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+
 @RestController
 @RequestMapping("medicos")
 public class MedicoController {
@@ -31,42 +49,114 @@ public class MedicoController {
     @Autowired
     private MedicoRepository medicoRepository;
 
+    @Autowired
+    private SeletorMedico seletorMedico;
+
+    @Autowired
+    private DetalhamentoCadastros detalhamento;
+
+    @Autowired
+    private BuscaCadastros busca;
+
+    @Autowired
+    private AgendaMedico agenda;
+
     @PostMapping
     @Transactional
     public ResponseEntity<DadosDetalhamentoMedico> cadastrar(@RequestBody @Valid DadosCadastroMedico dados,
             UriComponentsBuilder uriBuilder) {
         var medico = new Medico(dados);
         medicoRepository.save(medico);
+        seletorMedico.adicionar(medico);
         var uri = uriBuilder.path("/medicos/{id}").buildAndExpand(medico.getId()).toUri();
-        return ResponseEntity.created(uri).body(new DadosDetalhamentoMedico(medico));
+        return ResponseEntity.created(uri).eTag(Versoes.etag(medico.getVersao())).body(new DadosDetalhamentoMedico(medico));
     }
 
     @GetMapping
+    @Transactional(readOnly = true)
     public ResponseEntity<Page<DadosListagemMedico>> listar(Pageable paginacao) {
         var page = medicoRepository.findAllByAtivoTrue(paginacao)
                 .map(DadosListagemMedico::new);
-        return ResponseEntity.ok(page);
+        return ResponseEntity.ok().cacheControl(PoliticasCache.LISTAGEM).body(page);
+    }
+
+    // Detalhamento em lote (ex.: grade da semana), na ordem dos ids informados
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> detalharVarios(@RequestParam List<Long> ids) {
+        if (ids.size() > DetalhamentoCadastros.MAXIMO_IDS) {
+            return ResponseEntity.badRequest().body("Informe até " + DetalhamentoCadastros.MAXIMO_IDS + " ids.");
+        }
+        return ResponseEntity.ok().cacheControl(PoliticasCache.LISTAGEM).body(detalhamento.medicos(new LinkedHashSet<>(ids)));
+    }
+
+    // Listagem por cursor (nome, id): para rolagem profunda, sem OFFSET nem count
+    @GetMapping("/cursor")
+    @Transactional(readOnly = true)
+    public ResponseEntity<DadosPaginaCursor<DadosListagemMedico>> listarPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DadosPaginaCursor.TAMANHO_PADRAO) int tamanho) {
+        tamanho = DadosPaginaCursor.limitar(tamanho);
+        var limite = PageRequest.ofSize(tamanho + 1);
+        List<Medico> medicos;
+        if (cursor == null) {
+            medicos = medicoRepository.findByAtivoTrueOrderByNomeAscIdAsc(limite);
+        } else {
+            var posicao = Cursor.decodificar(cursor);
+            medicos = medicoRepository.listarAtivosApos(posicao.valor(), posicao.id(), limite);
+        }
+        var linhas = medicos.stream().map(DadosListagemMedico::new).toList();
+        return ResponseEntity.ok().cacheControl(PoliticasCache.LISTAGEM)
+                .body(DadosPaginaCursor.de(linhas, tamanho, m -> new Cursor(m.nome(), m.id())));
     }
 
     @PutMapping
     @Transactional
-    public ResponseEntity<DadosDetalhamentoMedico> atualizar(@RequestBody @Valid DadosAtualizacaoMedico dados) {
+    public ResponseEntity<DadosDetalhamentoMedico> atualizar(@RequestBody @Valid DadosAtualizacaoMedico dados,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         var medico = medicoRepository.getReferenceById(dados.id());
+        Versoes.conferir(ifMatch, medico.getVersao());
         medico.atualizarInformacoes(dados);
-        return ResponseEntity.ok(new DadosDetalhamentoMedico(medico));
+        // flush para a resposta levar a versão nova (e o conflito, se houver, virar 409 aqui)
+        medicoRepository.flush();
+        detalhamento.removerMedico(medico.getId());
+        return ResponseEntity.ok().eTag(Versoes.etag(medico.getVersao())).body(new DadosDetalhamentoMedico(medico));
     }
 
     @DeleteMapping("/{id}")
     @Transactional
-    public ResponseEntity<Void> excluir(@PathVariable Long id) {
+    public ResponseEntity<Void> excluir(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         var medico = medicoRepository.getReferenceById(id);
+        Versoes.conferir(ifMatch, medico.getVersao());
         medico.excluir();
+        seletorMedico.remover(medico);
+        detalhamento.removerMedico(id);
         return ResponseEntity.noContent().build();
     }
 
+    // Busca para a recepção: nome (prefixos, sem acento) ou CRM (prefixo)
+    @GetMapping("/busca")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<DadosListagemMedico>> buscar(@RequestParam String q,
+            @RequestParam(defaultValue = "" + BuscaCadastros.LIMITE_PADRAO) int limite) {
+        return ResponseEntity.ok().cacheControl(PoliticasCache.LISTAGEM).body(busca.medicos(q, limite));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<DadosDetalhamentoMedico> detalhar(@PathVariable Long id) {
-        var medico = medicoRepository.getReferenceById(id);
-        return ResponseEntity.ok(new DadosDetalhamentoMedico(medico));
+        var medico = detalhamento.medico(id);
+        // Vem do cache; com If-None-Match igual à ETag, o Spring responde 304 sem serializar o corpo
+        return ResponseEntity.ok().eTag(Versoes.etag(medico.versao())).cacheControl(PoliticasCache.DETALHE).body(medico);
+    }
+
+    // Semana do médico (segunda a sábado) que contém o dia informado; sem dia, a semana atual.
+    // Fora da réplica: a semana montada vai para o cache de AgendaMedico
+    @GetMapping("/{id}/agenda")
+    public ResponseEntity<DadosAgendaSemana> agendaSemanal(@PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate semana) {
+        // 404 se o médico não existe
+        detalhamento.medico(id);
+        return ResponseEntity.ok().cacheControl(PoliticasCache.LISTAGEM)
+                .body(agenda.semana(id, semana != null ? semana : LocalDate.now()));
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,28 @@
 package com.medpro.medpro.controller;
 
 import com.medpro.medpro.model.dto.*;
+import com.medpro.medpro.infra.concorrencia.Versoes;
+import com.medpro.medpro.infra.http.PoliticasCache;
+import com.medpro.medpro.infra.paginacao.Cursor;
 import com.medpro.medpro.model.entity.Paciente;
 import com.medpro.medpro.repository.PacienteRepository;
+import com.medpro.medpro.service.BuscaCadastros;
+import com.medpro.medpro.service.DetalhamentoCadastros;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+
 @RestController
 @RequestMapping("pacientes")
 public class PacienteController {
@@ -20,6 +30,12 @@ public class PacienteController {
     @Autowired
     private PacienteRepository pacienteRepository;
 
+    @Autowired
+    private DetalhamentoCadastros detalhamento;
+
+    @Autowired
+    private BuscaCadastros busca;
+
     @PostMapping
     @Transactional
     public ResponseEntity<DadosDetalhamentoPaciente> cadastrar(@RequestBody @Valid DadosCadastroPaciente dados, UriComponentsBuilder uriBuilder) {
@@ -27,40 +43,87 @@ public class PacienteController {
         pacienteRepository.save(paciente);
 
         var uri = uriBuilder.path("/pacientes/{id}").buildAndExpand(paciente.getId()).toUri();
-        return ResponseEntity.created(uri).body(new DadosDetalhamentoPaciente(paciente));
+        return ResponseEntity.created(uri).eTag(Versoes.etag(paciente.getVersao())).body(new DadosDetalhamentoPaciente(paciente));
     }
 
     @GetMapping
+    @Transactional(readOnly = true)
     public ResponseEntity<Page<DadosListagemPaciente>> listar(@PageableDefault(size = 10) Pageable pageable) {
         var page = pacienteRepository.findAllByAtivoTrue(pageable).map(DadosListagemPaciente::new);
-        return ResponseEntity.ok(page);
+        return ResponseEntity.ok().cacheControl(PoliticasCache.LISTAGEM).body(page);
+    }
+
+    // Detalhamento em lote (ex.: grade da semana), na ordem dos ids informados
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> detalharVarios(@RequestParam List<Long> ids) {
+        if (ids.size() > DetalhamentoCadastros.MAXIMO_IDS) {
+            return ResponseEntity.badRequest().body("Informe até " + DetalhamentoCadastros.MAXIMO_IDS + " ids.");
+        }
+        return ResponseEntity.ok().cacheControl(PoliticasCache.LISTAGEM).body(detalhamento.pacientes(new LinkedHashSet<>(ids)));
+    }
+
+    // Listagem por cursor (nome, id): para rolagem profunda, sem OFFSET nem count
+    @GetMapping("/cursor")
+    @Transactional(readOnly = true)
+    public ResponseEntity<DadosPaginaCursor<DadosListagemPaciente>> listarPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DadosPaginaCursor.TAMANHO_PADRAO) int tamanho) {
+        tamanho = DadosPaginaCursor.limitar(tamanho);
+        var limite = PageRequest.ofSize(tamanho + 1);
+        List<Paciente> pacientes;
+        if (cursor == null) {
+            pacientes = pacienteRepository.findByAtivoTrueOrderByNomeAscIdAsc(limite);
+        } else {
+            var posicao = Cursor.decodificar(cursor);
+            pacientes = pacienteRepository.listarAtivosApos(posicao.valor(), posicao.id(), limite);
+        }
+        var linhas = pacientes.stream().map(DadosListagemPaciente::new).toList();
+        return ResponseEntity.ok().cacheControl(PoliticasCache.LISTAGEM)
+                .body(DadosPaginaCursor.de(linhas, tamanho, p -> new Cursor(p.nome(), p.id())));
+    }
+
+    // Busca para a recepção: nome (prefixos, sem acento) ou CPF (prefixo)
+    @GetMapping("/busca")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<DadosListagemPaciente>> buscar(@RequestParam String q,
+            @RequestParam(defaultValue = "" + BuscaCadastros.LIMITE_PADRAO) int limite) {
+        return ResponseEntity.ok().cacheControl(PoliticasCache.LISTAGEM).body(busca.pacientes(q, limite));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<DadosDetalhamentoPaciente> detalhar(@PathVariable Long id) {
-        var paciente = pacienteRepository.getReferenceById(id);
-        return ResponseEntity.ok(new DadosDetalhamentoPaciente(paciente));
+        var paciente = detalhamento.paciente(id);
+        // Vem do cache; com If-None-Match igual à ETag, o Spring responde 304 sem serializar o corpo
+        return ResponseEntity.ok().eTag(Versoes.etag(paciente.versao())).cacheControl(PoliticasCache.DETALHE).body(paciente);
     }
 
     @PutMapping
     @Transactional
-    public ResponseEntity<?> atualizar(@RequestBody @Valid DadosAtualizacaoPaciente dados) {
+    public ResponseEntity<?> atualizar(@RequestBody @Valid DadosAtualizacaoPaciente dados,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         var pacienteOpt = pacienteRepository.findById(dados.id());
         if (pacienteOpt.isEmpty()) {
             return ResponseEntity.badRequest().body("Paciente não encontrado.");
         }
         var paciente = pacienteOpt.get();
+        Versoes.conferir(ifMatch, paciente.getVersao());
 
         paciente.atualizarInformacoes(dados);
+        // flush para a resposta levar a versão nova (e o conflito, se houver, virar 409 aqui)
+        pacienteRepository.flush();
+        detalhamento.removerPaciente(paciente.getId());
 
-        return ResponseEntity.ok(new DadosDetalhamentoPaciente(paciente));
+        return ResponseEntity.ok().eTag(Versoes.etag(paciente.getVersao())).body(new DadosDetalhamentoPaciente(paciente));
     }
 
     @DeleteMapping("/{id}")
     @Transactional
-    public ResponseEntity<?> excluir(@PathVariable Long id) {
+    public ResponseEntity<?> excluir(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         var paciente = pacienteRepository.getReferenceById(id);
+        Versoes.conferir(ifMatch, paciente.getVersao());
         paciente.inativar();
+        detalhamento.removerPaciente(id);
         return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,8 @@
+package com.medpro.medpro.enums;
+
+public enum SituacaoLembrete {
+    PENDENTE,
+    ENVIADO,
+    FALHOU,
+    DESCARTADO;
+}
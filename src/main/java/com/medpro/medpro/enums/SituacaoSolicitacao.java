@@ -0,0 +1,9 @@
+package com.medpro.medpro.enums;
+
+public enum SituacaoSolicitacao {
+    PENDENTE,
+    CONFIRMADA,
+    RECUSADA,
+    // Erro ao gravar o lote; só em memória, e a mesma chave pode ser reenviada
+    FALHA;
+}
@@ -0,0 +1,116 @@
+package com.medpro.medpro.infra.concorrencia;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limite de requisições simultâneas da API, para uso com threads virtuais.
+ * <p>
+ * Com threads virtuais o Tomcat deixa de limitar a concorrência, e milhares de requisições passariam a
+ * disputar as poucas conexões do Hikari. O filtro admite no máximo {@code medpro.admissao.limite}
+ * requisições por vez; as demais esperam até {@code medpro.admissao.espera} por uma vaga e,
+ * se não conseguirem, recebem 503 com Retry-After em vez de ficarem presas na fila do pool.
+ * <p>
+ * Requisições assíncronas (exportações com {@code StreamingResponseBody}) continuam lendo do banco depois
+ * que a thread da requisição volta ao Tomcat: a vaga só é devolvida quando a resposta assíncrona termina.
+ */
+@Component
+@ConditionalOnProperty(name = "medpro.admissao.habilitada", havingValue = "true")
+public class LimiteAdmissao extends OncePerRequestFilter {
+
+    private final Semaphore vagas;
+    private final long esperaNanos;
+
+    public LimiteAdmissao(@Value("${medpro.admissao.limite}") int limite,
+            @Value("${medpro.admissao.espera:100ms}") Duration espera) {
+        this.vagas = new Semaphore(limite, true);
+        this.esperaNanos = espera.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean admitida;
+        try {
+            admitida = vagas.tryAcquire(esperaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitida = false;
+        }
+        if (!admitida) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+        var liberada = new AtomicBoolean();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // O dispatch assíncrono não passa de novo por aqui (OncePerRequestFilter): a vaga segue com ele
+                request.getAsyncContext().addListener(new LiberarAoTerminar(liberada));
+            } else {
+                liberar(liberada);
+            }
+        }
+    }
+
+    private void liberar(AtomicBoolean liberada) {
+        if (liberada.compareAndSet(false, true)) {
+            vagas.release();
+        }
+    }
+
+    // Health checks e métricas não disputam vagas com a API
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    // Erro e timeout podem ser seguidos de complete: libera uma única vez
+    private class LiberarAoTerminar implements AsyncListener {
+
+        private final AtomicBoolean liberada;
+
+        LiberarAoTerminar(AtomicBoolean liberada) {
+            this.liberada = liberada;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            liberar(liberada);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            liberar(liberada);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            liberar(liberada);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Novo ciclo assíncrono na mesma requisição: continua ouvindo
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
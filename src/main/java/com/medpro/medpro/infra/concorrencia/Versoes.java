@@ -0,0 +1,50 @@
+package com.medpro.medpro.infra.concorrencia;
+
+import com.medpro.medpro.infra.exception.VersaoDivergenteException;
+
+import java.util.StringJoiner;
+
+/**
+ * ETag das entidades versionadas ({@code @Version}) e conferência do If-Match.
+ * A ETag é a própria versão entre aspas (ex.: {@code "3"}); para recursos que embutem outros
+ * (consulta com médico e paciente), as versões de cada um separadas por hífen (ex.: {@code "3-1-7"}).
+ * <p>
+ * Nos GET, a ETag enviada na {@code ResponseEntity} também atende If-None-Match: o Spring responde 304
+ * antes de serializar o corpo.
+ */
+public final class Versoes {
+
+    private Versoes() {
+    }
+
+    public static String etag(Long... versoes) {
+        var etag = new StringJoiner("-", "\"", "\"");
+        for (var versao : versoes) {
+            etag.add(String.valueOf(versao));
+        }
+        return etag.toString();
+    }
+
+    /**
+     * Confere o If-Match enviado pelo cliente com a versão atual. Sem cabeçalho (ou com {@code *}) a
+     * alteração segue; o {@code @Version} ainda barra a gravação se outra transação alterar a linha antes.
+     *
+     * @throws VersaoDivergenteException se nenhuma ETag forte do cabeçalho corresponder à versão atual
+     */
+    public static void conferir(String ifMatch, Long versaoAtual) {
+        conferir(ifMatch, etag(versaoAtual));
+    }
+
+    public static void conferir(String ifMatch, String atual) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return;
+        }
+        for (var etag : ifMatch.split(",")) {
+            // Comparação forte (RFC 9110, 13.1.1): uma ETag fraca (W/"3") nunca corresponde
+            if (etag.trim().equals(atual)) {
+                return;
+            }
+        }
+        throw new VersaoDivergenteException(atual);
+    }
+}
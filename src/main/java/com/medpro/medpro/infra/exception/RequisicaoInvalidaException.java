@@ -0,0 +1,10 @@
+package com.medpro.medpro.infra.exception;
+
+// Parâmetro ou cabeçalho da requisição inválido (cursor, Idempotency-Key); tratada como 400 em TrataErros.
+// A mensagem vai para o cliente: só texto escrito para ele, nunca a de uma exceção interna
+public class RequisicaoInvalidaException extends RuntimeException {
+
+    public RequisicaoInvalidaException(String mensagem) {
+        super(mensagem);
+    }
+}
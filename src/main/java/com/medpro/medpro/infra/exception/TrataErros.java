@@ -1,19 +1,31 @@
 package com.medpro.medpro.infra.exception;
 
 import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.medpro.medpro.infra.metricas.MetricasAgendamento;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class TrataErros {
 
+    private final MetricasAgendamento metricas;
+
+    public TrataErros(MetricasAgendamento metricas) {
+        this.metricas = metricas;
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<Void> tratarErro404() {
         return ResponseEntity.notFound().build();
@@ -28,6 +40,17 @@ public class TrataErros {
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ErroCampoInvalido> tratarErroDeDuplicidade(DataIntegrityViolationException e) {
         String mensagemDetalhada = e.getMostSpecificCause().getMessage();
+
+        // Chaves únicas de consultas ativas: outro agendamento concorrente ocupou o horário primeiro
+        if (mensagemDetalhada.contains("uk_consultas_medico_horario_ativa")) {
+            metricas.rejeicao("conflito_medico_horario", null);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErroCampoInvalido("dataHora", "Médico já possui outra consulta agendada nesse mesmo horário."));
+        }
+
+        if (mensagemDetalhada.contains("uk_consultas_paciente_dia_ativa")) {
+            metricas.rejeicao("conflito_paciente_dia", null);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErroCampoInvalido("dataHora", "Paciente já possui uma consulta agendada para esse dia."));
+        }
         
         if (mensagemDetalhada.contains("crm")) {
             return ResponseEntity.badRequest().body(new ErroCampoInvalido("crm", "Este CRM já está cadastrado no sistema."));
@@ -55,6 +78,36 @@ public class TrataErros {
         return ResponseEntity.badRequest().body(erro);
     }
 
+    // Cursor de paginação ou Idempotency-Key inválidos
+    @ExceptionHandler(RequisicaoInvalidaException.class)
+    public ResponseEntity<String> tratarRequisicaoInvalida(RequisicaoInvalidaException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    // Pool de conexões esgotado: o cliente deve tentar de novo em instantes
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<Void> tratarPoolEsgotado() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    // If-Match desatualizado: o cliente deve reler o registro (ETag atual na resposta) antes de alterar
+    @ExceptionHandler(VersaoDivergenteException.class)
+    public ResponseEntity<String> tratarVersaoDivergente(VersaoDivergenteException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(e.getEtagAtual()).body(e.getMessage());
+    }
+
+    // Outra transação alterou o registro entre a leitura e a gravação (@Version)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> tratarConflitoDeVersao() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("O registro foi alterado por outra requisição. Tente novamente.");
+    }
+
+    // Fila do agendamento assíncrono cheia: a mesma chave pode ser reenviada em instantes
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> tratarFilaCheia() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
     private record ErroCampoInvalido(String campo, String mensagem) {}
 
     private record DadosErroValidacao(String campo, String mensagem) {
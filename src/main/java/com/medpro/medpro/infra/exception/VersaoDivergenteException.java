@@ -0,0 +1,16 @@
+package com.medpro.medpro.infra.exception;
+
+// If-Match não corresponde à versão atual do registro (tratada como 412 em TrataErros)
+public class VersaoDivergenteException extends RuntimeException {
+
+    private final String etagAtual;
+
+    public VersaoDivergenteException(String etagAtual) {
+        super("O registro foi alterado por outra requisição.");
+        this.etagAtual = etagAtual;
+    }
+
+    public String getEtagAtual() {
+        return etagAtual;
+    }
+}
@@ -0,0 +1,21 @@
+package com.medpro.medpro.infra.http;
+
+import org.springframework.http.CacheControl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache-Control das respostas de leitura. Os dados são de pacientes, então nada vai para caches compartilhados.
+ * <ul>
+ * <li>Detalhes: o cliente guarda, mas revalida a cada uso com If-None-Match (304 se a ETag não mudou);</li>
+ * <li>Listagens: sem versão barata para comparar, ficam válidas por alguns segundos.</li>
+ * </ul>
+ */
+public final class PoliticasCache {
+
+    public static final CacheControl DETALHE = CacheControl.noCache().cachePrivate();
+    public static final CacheControl LISTAGEM = CacheControl.maxAge(5, TimeUnit.SECONDS).cachePrivate();
+
+    private PoliticasCache() {
+    }
+}
@@ -0,0 +1,41 @@
+package com.medpro.medpro.infra.metricas;
+
+import com.medpro.medpro.enums.Especialidade;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Métricas do agendamento e do cancelamento, expostas em /actuator/metrics e /actuator/prometheus:
+ * <ul>
+ * <li>{@value #ETAPA}: tempo de cada etapa (tag {@code etapa});</li>
+ * <li>{@value #REJEICOES}: recusas por regra (tags {@code regra} e {@code especialidade}).</li>
+ * </ul>
+ */
+@Component
+public class MetricasAgendamento {
+
+    public static final String ETAPA = "medpro.agendamento.etapa";
+    public static final String REJEICOES = "medpro.agendamento.rejeicoes";
+
+    private static final String SEM_ESPECIALIDADE = "NAO_INFORMADA";
+
+    private final MeterRegistry registry;
+
+    public MetricasAgendamento(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample iniciar() {
+        return Timer.start(registry);
+    }
+
+    public void etapa(String etapa, Timer.Sample amostra) {
+        amostra.stop(registry.timer(ETAPA, "etapa", etapa));
+    }
+
+    public void rejeicao(String regra, Especialidade especialidade) {
+        registry.counter(REJEICOES, "regra", regra,
+                "especialidade", especialidade != null ? especialidade.name() : SEM_ESPECIALIDADE).increment();
+    }
+}
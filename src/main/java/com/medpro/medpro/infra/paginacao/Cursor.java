@@ -0,0 +1,45 @@
+package com.medpro.medpro.infra.paginacao;
+
+import com.medpro.medpro.infra.exception.RequisicaoInvalidaException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor opaco da paginação por chave: última chave de ordenação lida + id (desempate).
+ * Trafega em Base64 URL-safe para o cliente não depender do formato.
+ */
+public record Cursor(String valor, Long id) {
+
+    private static final char SEPARADOR = '|';
+    private static final String MENSAGEM_INVALIDO = "Cursor de paginação inválido.";
+
+    public Cursor(LocalDateTime dataHora, Long id) {
+        this(dataHora.toString(), id);
+    }
+
+    public LocalDateTime dataHora() {
+        try {
+            return LocalDateTime.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new RequisicaoInvalidaException(MENSAGEM_INVALIDO);
+        }
+    }
+
+    public String codificar() {
+        var texto = valor + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decodificar(String cursor) {
+        try {
+            var texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var posicao = texto.lastIndexOf(SEPARADOR);
+            return new Cursor(texto.substring(0, posicao), Long.valueOf(texto.substring(posicao + 1)));
+        } catch (RuntimeException e) {
+            throw new RequisicaoInvalidaException(MENSAGEM_INVALIDO);
+        }
+    }
+}
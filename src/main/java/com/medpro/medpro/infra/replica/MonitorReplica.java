@@ -0,0 +1,48 @@
+package com.medpro.medpro.infra.replica;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Acompanha o atraso da réplica ({@code Seconds_Behind_Source} de {@code SHOW REPLICA STATUS}).
+ * <p>
+ * A réplica só recebe leituras enquanto o atraso estiver dentro de {@code medpro.replica.atraso-maximo}.
+ * Replicação parada, réplica inacessível ou sem replicação configurada contam como indisponível,
+ * e as leituras voltam para a primária até a próxima verificação boa.
+ */
+public class MonitorReplica {
+
+    public static final String ATRASO = "medpro.replica.atraso";
+
+    private final JdbcTemplate jdbc;
+    private final long atrasoMaximoSegundos;
+    private volatile long atrasoSegundos = -1;
+
+    public MonitorReplica(DataSource replica, Duration atrasoMaximo, MeterRegistry registry) {
+        this.jdbc = new JdbcTemplate(replica);
+        this.atrasoMaximoSegundos = atrasoMaximo.toSeconds();
+        // -1: atraso desconhecido (réplica fora do ar ou replicação parada)
+        registry.gauge(ATRASO, this, monitor -> monitor.atrasoSegundos);
+    }
+
+    public boolean disponivel() {
+        var atraso = atrasoSegundos;
+        return atraso >= 0 && atraso <= atrasoMaximoSegundos;
+    }
+
+    @Scheduled(fixedDelayString = "${medpro.replica.verificacao:1000}")
+    public void verificar() {
+        try {
+            Long atraso = jdbc.query("show replica status",
+                    rs -> rs.next() ? rs.getObject("Seconds_Behind_Source", Long.class) : null);
+            atrasoSegundos = atraso != null ? atraso : -1;
+        } catch (DataAccessException e) {
+            atrasoSegundos = -1;
+        }
+    }
+}
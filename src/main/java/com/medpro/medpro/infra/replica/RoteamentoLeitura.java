@@ -0,0 +1,40 @@
+package com.medpro.medpro.infra.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Escolhe a primária ou a réplica por conexão: transações {@code readOnly} vão para a réplica enquanto
+ * o {@link MonitorReplica} a considerar em dia; todo o resto (escritas, leituras sem transação ou dentro
+ * de transações de escrita) fica na primária.
+ * <p>
+ * Precisa ficar atrás de um {@code LazyConnectionDataSourceProxy}: o gerenciador de transações pede a
+ * conexão antes de marcar a transação como somente leitura, e o proxy adia a escolha até o primeiro comando.
+ */
+public class RoteamentoLeitura extends AbstractRoutingDataSource {
+
+    enum Destino {
+        PRIMARIA, REPLICA
+    }
+
+    private final MonitorReplica monitor;
+
+    public RoteamentoLeitura(DataSource primaria, DataSource replica, MonitorReplica monitor) {
+        this.monitor = monitor;
+        setTargetDataSources(Map.of(Destino.PRIMARIA, primaria, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primaria);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && monitor.disponivel()) {
+            return Destino.REPLICA;
+        }
+        return Destino.PRIMARIA;
+    }
+}
@@ -0,0 +1,9 @@
+package com.medpro.medpro.model.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record DadosAgendaDia(
+        LocalDate dia,
+        List<DadosHorarioAgenda> horarios
+) {}
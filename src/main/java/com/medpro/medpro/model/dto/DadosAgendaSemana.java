@@ -0,0 +1,10 @@
+package com.medpro.medpro.model.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record DadosAgendaSemana(
+        Long medicoId,
+        LocalDate inicio, // segunda-feira
+        List<DadosAgendaDia> dias
+) {}
@@ -0,0 +1,10 @@
+package com.medpro.medpro.model.dto;
+
+import java.time.LocalDateTime;
+
+public record DadosConsultaAgenda(
+        Long id,
+        LocalDateTime dataHora,
+        Long pacienteId,
+        String paciente
+) {}
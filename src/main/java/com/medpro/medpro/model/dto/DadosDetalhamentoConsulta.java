@@ -15,14 +15,18 @@ public record DadosDetalhamentoConsulta(
 ) {
 
     public DadosDetalhamentoConsulta(Consulta consulta) {
+        this(consulta, new DadosDetalhamentoMedico(consulta.getMedico()), new DadosDetalhamentoPaciente(consulta.getPaciente()));
+    }
+
+    public DadosDetalhamentoConsulta(Consulta consulta, DadosDetalhamentoMedico medico, DadosDetalhamentoPaciente paciente) {
         this(
                 consulta.getId(),
                 consulta.getDataHora(),
                 consulta.getSituacao(),
                 consulta.getMotivoConsulta(),
                 consulta.getMotivoCancelamento(),
-                new DadosDetalhamentoMedico(consulta.getMedico()),
-                new DadosDetalhamentoPaciente(consulta.getPaciente())
+                medico,
+                paciente
         );
     }
 }
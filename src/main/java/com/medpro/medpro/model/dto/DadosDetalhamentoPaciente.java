@@ -1,5 +1,6 @@
 package com.medpro.medpro.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.medpro.medpro.model.entity.Paciente;
 
 public record DadosDetalhamentoPaciente(
@@ -9,7 +10,8 @@ public record DadosDetalhamentoPaciente(
         String cpf,
         String telefone,
         Boolean ativo,
-        DadosEndereco endereco
+        DadosEndereco endereco,
+        @JsonIgnore Long versao // enviada no cabeçalho ETag
 ) {
     public DadosDetalhamentoPaciente(Paciente paciente) {
         this(
@@ -19,7 +21,8 @@ public record DadosDetalhamentoPaciente(
                 paciente.getCpf(),
                 paciente.getTelefone(),
                 paciente.getAtivo(),
-                new DadosEndereco(paciente.getEndereco())
+                new DadosEndereco(paciente.getEndereco()),
+                paciente.getVersao()
         );
     }
 }
@@ -0,0 +1,23 @@
+package com.medpro.medpro.model.dto;
+
+import com.medpro.medpro.enums.Especialidade;
+
+import java.time.LocalDate;
+
+// Totais de um dia por especialidade (medicoId nulo) ou de um médico (especialidade nula)
+public record DadosEstatisticasDia(
+        LocalDate dia,
+        Especialidade especialidade,
+        Long medicoId,
+        long agendadas,
+        long canceladas,
+        long canceladasComMotivo,
+        double taxaCancelamento
+) {
+
+    public DadosEstatisticasDia(LocalDate dia, Especialidade especialidade, Long medicoId, long agendadas,
+            long canceladas, long canceladasComMotivo) {
+        this(dia, especialidade, medicoId, agendadas, canceladas, canceladasComMotivo,
+                agendadas == 0 ? 0 : (double) canceladas / agendadas);
+    }
+}
@@ -0,0 +1,19 @@
+package com.medpro.medpro.model.dto;
+
+import java.time.LocalDateTime;
+
+public record DadosHorarioAgenda(
+        LocalDateTime dataHora,
+        boolean livre,
+        Long consultaId,
+        Long pacienteId,
+        String paciente
+) {
+    public static DadosHorarioAgenda livre(LocalDateTime dataHora) {
+        return new DadosHorarioAgenda(dataHora, true, null, null, null);
+    }
+
+    public static DadosHorarioAgenda ocupado(DadosConsultaAgenda consulta) {
+        return new DadosHorarioAgenda(consulta.dataHora(), false, consulta.id(), consulta.pacienteId(), consulta.paciente());
+    }
+}
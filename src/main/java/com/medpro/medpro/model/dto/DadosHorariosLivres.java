@@ -0,0 +1,11 @@
+package com.medpro.medpro.model.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public record DadosHorariosLivres(
+        Long medicoId,
+        LocalDate dia,
+        List<LocalTime> horarios
+) {}
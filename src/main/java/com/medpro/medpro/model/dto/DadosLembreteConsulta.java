@@ -0,0 +1,22 @@
+package com.medpro.medpro.model.dto;
+
+import com.medpro.medpro.enums.Especialidade;
+
+import java.time.LocalDateTime;
+
+public record DadosLembreteConsulta(
+        Long id,
+        Long consultaId,
+        LocalDateTime dataHora,
+        String paciente,
+        String email,
+        String telefone,
+        String medico,
+        Especialidade especialidade
+) {
+    public DadosLembreteConsulta(Long id, Long consultaId, LocalDateTime dataHora, DadosDetalhamentoPaciente paciente,
+            DadosDetalhamentoMedico medico) {
+        this(id, consultaId, dataHora, paciente.nome(), paciente.email(), paciente.telefone(), medico.nome(),
+                medico.especialidade());
+    }
+}
@@ -0,0 +1,5 @@
+package com.medpro.medpro.model.dto;
+
+import com.medpro.medpro.enums.Especialidade;
+
+public record DadosMedicoAtivo(Long id, Especialidade especialidade) {}
@@ -0,0 +1,9 @@
+package com.medpro.medpro.model.dto;
+
+import java.time.LocalDateTime;
+
+public record DadosOcupacaoConsulta(
+        Long medicoId,
+        Long pacienteId,
+        LocalDateTime dataHora
+) {}
@@ -0,0 +1,26 @@
+package com.medpro.medpro.model.dto;
+
+import com.medpro.medpro.infra.paginacao.Cursor;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Página da listagem por cursor: sem total de registros, só o cursor da próxima página (null na última)
+public record DadosPaginaCursor<T>(List<T> conteudo, int tamanho, String proximoCursor) {
+
+    public static final int TAMANHO_PADRAO = 10;
+    public static final int TAMANHO_MAXIMO = 100;
+
+    // Os repositórios buscam tamanho + 1 linhas: a linha extra só indica que existe próxima página
+    public static <T> DadosPaginaCursor<T> de(List<T> linhas, int tamanho, Function<T, Cursor> cursorDe) {
+        if (linhas.size() <= tamanho) {
+            return new DadosPaginaCursor<>(linhas, linhas.size(), null);
+        }
+        var conteudo = linhas.subList(0, tamanho);
+        return new DadosPaginaCursor<>(conteudo, tamanho, cursorDe.apply(conteudo.get(tamanho - 1)).codificar());
+    }
+
+    public static int limitar(int tamanho) {
+        return Math.max(1, Math.min(tamanho, TAMANHO_MAXIMO));
+    }
+}
@@ -0,0 +1,13 @@
+package com.medpro.medpro.model.dto;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+public record DadosReagendamentoConsulta(
+        @NotNull
+        @Future
+        LocalDateTime dataHora,
+
+        String motivoConsulta // mantém o motivo atual se não informado
+) {}
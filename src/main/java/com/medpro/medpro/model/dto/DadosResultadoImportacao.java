@@ -0,0 +1,9 @@
+package com.medpro.medpro.model.dto;
+
+import java.util.List;
+
+public record DadosResultadoImportacao(
+        long recebidas,
+        long importadas,
+        List<DadosRejeicaoImportacao> rejeitadas
+) {}
@@ -0,0 +1,3 @@
+package com.medpro.medpro.model.dto;
+
+public record DadosSituacaoCadastro(Long id, Boolean ativo) {}
@@ -0,0 +1,27 @@
+package com.medpro.medpro.model.dto;
+
+import com.medpro.medpro.enums.SituacaoSolicitacao;
+
+public record DadosSolicitacaoAgendamento(
+        String chave,
+        SituacaoSolicitacao situacao,
+        Long consultaId,
+        String motivo
+) {
+
+    public static DadosSolicitacaoAgendamento pendente(String chave) {
+        return new DadosSolicitacaoAgendamento(chave, SituacaoSolicitacao.PENDENTE, null, null);
+    }
+
+    public static DadosSolicitacaoAgendamento confirmada(String chave, Long consultaId) {
+        return new DadosSolicitacaoAgendamento(chave, SituacaoSolicitacao.CONFIRMADA, consultaId, null);
+    }
+
+    public static DadosSolicitacaoAgendamento recusada(String chave, String motivo) {
+        return new DadosSolicitacaoAgendamento(chave, SituacaoSolicitacao.RECUSADA, null, motivo);
+    }
+
+    public static DadosSolicitacaoAgendamento falha(String chave, String motivo) {
+        return new DadosSolicitacaoAgendamento(chave, SituacaoSolicitacao.FALHA, null, motivo);
+    }
+}
@@ -2,7 +2,9 @@ package com.medpro.medpro.model.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.PartitionKey;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
@@ -18,16 +20,26 @@ public class Consulta {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "medico_id")
+    @ToString.Exclude
     private Medico medico;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "paciente_id")
+    @ToString.Exclude
     private Paciente paciente;
 
     private LocalDateTime dataHora;
 
+    // Coluna gerada a partir de data_hora e chave de partição da tabela (V13). Como @PartitionKey, entra no
+    // where do update com @Version, que toca uma só partição. Vale o dia lido do banco: numa consulta recém
+    // criada fica nula até ser relida, e num reagendamento continua apontando a partição de origem da linha.
+    @PartitionKey
+    @Column(insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private LocalDate dia;
+
     @Column(name = "motivo")
     private String motivoConsulta;
 
@@ -38,6 +50,10 @@ public class Consulta {
 
     private LocalDateTime criadoEm;
 
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long versao;
+
     @PrePersist
     public void prePersist() {
         this.criadoEm = LocalDateTime.now();
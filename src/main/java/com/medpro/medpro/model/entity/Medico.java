@@ -12,6 +12,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -42,6 +43,9 @@ public class Medico {
 
     private boolean ativo;
 
+    @Version
+    private Long versao;
+
     public Medico(DadosCadastroMedico dados) {
         this.ativo = true;
         this.nome = dados.nome();
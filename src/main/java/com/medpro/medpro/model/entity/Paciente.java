@@ -26,6 +26,9 @@ public class Paciente {
 
     private Boolean ativo;
 
+    @Version
+    private Long versao;
+
     public Paciente(DadosCadastroPaciente dados) {
         this.nome = dados.nome();
         this.email = dados.email();
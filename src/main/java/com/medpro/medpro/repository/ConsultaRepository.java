@@ -1,15 +1,142 @@
 package com.medpro.medpro.repository;
 
+import com.medpro.medpro.enums.Especialidade;
+import com.medpro.medpro.model.dto.DadosConsultaAgenda;
+import com.medpro.medpro.model.dto.DadosListagemConsulta;
+import com.medpro.medpro.model.dto.DadosOcupacaoConsulta;
 import com.medpro.medpro.model.entity.Consulta;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface ConsultaRepository extends JpaRepository<Consulta, Long> {
 
-    boolean existsByMedicoIdAndDataHoraAndSituacaoNot(Long medicoId, LocalDateTime dataHora, String situacao);
+    // Carga inicial do índice de ocupação: apenas as colunas necessárias, sem hidratar entidades
+    @Query("""
+            select new com.medpro.medpro.model.dto.DadosOcupacaoConsulta(c.medico.id, c.paciente.id, c.dataHora)
+            from Consulta c
+            where
+            c.dataHora >= :inicio
+            and
+            c.situacao <> 'CANCELADA'
+            """)
+    List<DadosOcupacaoConsulta> listarOcupacaoAPartirDe(LocalDateTime inicio);
+
+    // Ocupação gravada de alguns médicos e pacientes no período: devolução de reservas do índice de ocupação
+    @Query("""
+            select new com.medpro.medpro.model.dto.DadosOcupacaoConsulta(c.medico.id, c.paciente.id, c.dataHora)
+            from Consulta c
+            where
+            c.dataHora >= :inicio
+            and
+            c.dataHora < :fim
+            and
+            c.situacao <> 'CANCELADA'
+            and
+            (c.medico.id in :medicos or c.paciente.id in :pacientes)
+            """)
+    List<DadosOcupacaoConsulta> listarOcupacaoDe(Collection<Long> medicos, Collection<Long> pacientes,
+            LocalDateTime inicio, LocalDateTime fim);
+
+    // Listagem direto no DTO: um único select com as colunas usadas, sem hidratar Medico/Paciente
+    @Query(value = """
+            select new com.medpro.medpro.model.dto.DadosListagemConsulta(
+                c.id, m.id, m.nome, p.id, p.nome, c.dataHora, c.situacao)
+            from Consulta c
+            join c.medico m
+            join c.paciente p
+            """,
+            countQuery = "select count(c) from Consulta c")
+    Page<DadosListagemConsulta> listar(Pageable paginacao);
+
+    // Ocupação dos médicos de uma especialidade no período (disponibilidade antes da carga do índice)
+    @Query("""
+            select new com.medpro.medpro.model.dto.DadosOcupacaoConsulta(c.medico.id, c.paciente.id, c.dataHora)
+            from Consulta c
+            where
+            c.dataHora >= :inicio
+            and
+            c.dataHora < :fim
+            and
+            c.situacao <> 'CANCELADA'
+            and
+            c.medico.especialidade = :especialidade
+            """)
+    List<DadosOcupacaoConsulta> listarOcupacaoDaEspecialidade(Especialidade especialidade, LocalDateTime inicio, LocalDateTime fim);
+
+    // Semana de um médico: intervalo em idx_consultas_medico_data_hora (medico_id, data_hora, situacao)
+    @Query("""
+            select new com.medpro.medpro.model.dto.DadosConsultaAgenda(c.id, c.dataHora, p.id, p.nome)
+            from Consulta c
+            join c.paciente p
+            where
+            c.medico.id = :medicoId
+            and
+            c.dataHora >= :inicio
+            and
+            c.dataHora < :fim
+            and
+            c.situacao <> 'CANCELADA'
+            order by c.dataHora
+            """)
+    List<DadosConsultaAgenda> listarAgendaDoMedico(Long medicoId, LocalDateTime inicio, LocalDateTime fim);
+
+    // Paginação por chave (dataHora, id): mesmo custo em qualquer profundidade, sem count
+    @Query("""
+            select new com.medpro.medpro.model.dto.DadosListagemConsulta(
+                c.id, m.id, m.nome, p.id, p.nome, c.dataHora, c.situacao)
+            from Consulta c
+            join c.medico m
+            join c.paciente p
+            order by c.dataHora, c.id
+            """)
+    List<DadosListagemConsulta> listarPrimeiras(Pageable limite);
 
-    boolean existsByPacienteIdAndDataHoraAndSituacaoNot(Long pacienteId, LocalDateTime dataHora, String situacao);
+    @Query("""
+            select new com.medpro.medpro.model.dto.DadosListagemConsulta(
+                c.id, m.id, m.nome, p.id, p.nome, c.dataHora, c.situacao)
+            from Consulta c
+            join c.medico m
+            join c.paciente p
+            where
+            c.dataHora >= :dataHora
+            and
+            (c.dataHora > :dataHora or c.id > :id)
+            order by c.dataHora, c.id
+            """)
+    List<DadosListagemConsulta> listarApos(LocalDateTime dataHora, Long id, Pageable limite);
 
-    // Método para validar se paciente já tem consulta no dia (independente do horário exato)
-    boolean existsByPacienteIdAndDataHoraBetweenAndSituacaoNot(Long pacienteId, LocalDateTime primeiroHorario, LocalDateTime ultimoHorario, String situacao);
-}
\ No newline at end of file
+    // Exportação: cursor só de avanço; fetch size Integer.MIN_VALUE faz o driver do MySQL entregar linha a linha
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.medpro.medpro.model.dto.DadosListagemConsulta(
+                c.id, m.id, m.nome, p.id, p.nome, c.dataHora, c.situacao)
+            from Consulta c
+            join c.medico m
+            join c.paciente p
+            where
+            c.dataHora >= :inicio
+            and
+            c.dataHora < :fim
+            and
+            (:situacao is null or c.situacao = :situacao)
+            and
+            (:especialidade is null or m.especialidade = :especialidade)
+            order by c.dataHora, c.id
+            """)
+    Stream<DadosListagemConsulta> exportar(LocalDateTime inicio, LocalDateTime fim, String situacao, Especialidade especialidade);
+}
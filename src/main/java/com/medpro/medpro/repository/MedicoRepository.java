@@ -1,6 +1,8 @@
 package com.medpro.medpro.repository;
 
 import com.medpro.medpro.enums.Especialidade;
+import com.medpro.medpro.model.dto.DadosMedicoAtivo;
+import com.medpro.medpro.model.dto.DadosSituacaoCadastro;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +11,8 @@ import org.springframework.data.jpa.repository.Query;
 import com.medpro.medpro.model.entity.Medico;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface MedicoRepository extends JpaRepository<Medico, Long>{
@@ -32,4 +36,47 @@ public interface MedicoRepository extends JpaRepository<Medico, Long>{
             limit 1
             """)
     Optional<Medico> escolherMedicoAleatorioLivreNaData(Especialidade especialidade, LocalDateTime data);
-}
\ No newline at end of file
+
+    @Query("select new com.medpro.medpro.model.dto.DadosMedicoAtivo(m.id, m.especialidade) from Medico m where m.ativo = true")
+    List<DadosMedicoAtivo> listarAtivosPorEspecialidade();
+
+    // Paginação por chave (nome, id)
+    List<Medico> findByAtivoTrueOrderByNomeAscIdAsc(Pageable limite);
+
+    @Query("""
+            select m from Medico m
+            where
+            m.ativo = true
+            and
+            m.nome >= :nome
+            and
+            (m.nome > :nome or m.id > :id)
+            order by m.nome, m.id
+            """)
+    List<Medico> listarAtivosApos(String nome, Long id, Pageable limite);
+
+    @Query("select new com.medpro.medpro.model.dto.DadosSituacaoCadastro(m.id, m.ativo) from Medico m where m.id in :ids")
+    List<DadosSituacaoCadastro> listarSituacao(Collection<Long> ids);
+
+    // Busca por nome: termos no formato do BOOLEAN MODE (ver BuscaCadastros), ordenados por relevância
+    @Query(value = """
+            select m.* from medicos m
+            where
+            match(m.nome) against(:termos in boolean mode)
+            and
+            m.ativo = true
+            order by match(m.nome) against(:termos in boolean mode) desc, m.nome, m.id
+            limit :limite
+            """, nativeQuery = true)
+    List<Medico> buscarPorNome(String termos, int limite);
+
+    @Query("""
+            select m from Medico m
+            where
+            m.crm like concat(:crm, '%')
+            and
+            m.ativo = true
+            order by m.crm
+            """)
+    List<Medico> buscarPorCrm(String crm, Pageable limite);
+}
@@ -1,10 +1,56 @@
 package com.medpro.medpro.repository;
 
+import com.medpro.medpro.model.dto.DadosSituacaoCadastro;
 import com.medpro.medpro.model.entity.Paciente;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface PacienteRepository extends JpaRepository<Paciente, Long> {
     Page<Paciente> findAllByAtivoTrue(Pageable paginacao);
+
+    // Paginação por chave (nome, id)
+    List<Paciente> findByAtivoTrueOrderByNomeAscIdAsc(Pageable limite);
+
+    @Query("""
+            select p from Paciente p
+            where
+            p.ativo = true
+            and
+            p.nome >= :nome
+            and
+            (p.nome > :nome or p.id > :id)
+            order by p.nome, p.id
+            """)
+    List<Paciente> listarAtivosApos(String nome, Long id, Pageable limite);
+
+    @Query("select new com.medpro.medpro.model.dto.DadosSituacaoCadastro(p.id, p.ativo) from Paciente p where p.id in :ids")
+    List<DadosSituacaoCadastro> listarSituacao(Collection<Long> ids);
+
+    // Busca por nome: termos no formato do BOOLEAN MODE (ver BuscaCadastros), ordenados por relevância
+    @Query(value = """
+            select p.* from pacientes p
+            where
+            match(p.nome) against(:termos in boolean mode)
+            and
+            p.ativo = true
+            order by match(p.nome) against(:termos in boolean mode) desc, p.nome, p.id
+            limit :limite
+            """, nativeQuery = true)
+    List<Paciente> buscarPorNome(String termos, int limite);
+
+    @Query(value = """
+            select p.* from pacientes p
+            where
+            p.cpf_digitos like concat(:digitos, '%')
+            and
+            p.ativo = true
+            order by p.cpf_digitos
+            limit :limite
+            """, nativeQuery = true)
+    List<Paciente> buscarPorCpf(String digitos, int limite);
 }
@@ -0,0 +1,92 @@
+package com.medpro.medpro.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medpro.medpro.model.dto.DadosAgendaDia;
+import com.medpro.medpro.model.dto.DadosAgendaSemana;
+import com.medpro.medpro.model.dto.DadosHorarioAgenda;
+import com.medpro.medpro.repository.ConsultaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+
+/**
+ * Semana de um médico (segunda a sábado, das 07:00 às 18:00): horários livres e ocupados, com o paciente.
+ * <p>
+ * As consultas da semana vêm de uma única consulta por intervalo em {@code (medico_id, data_hora)} e são
+ * encaixadas na grade em memória; uma consulta em horário quebrado (ex.: 07:30) ocupa a hora em que começa.
+ * A semana montada fica em cache; agendamento, cancelamento, reagendamento e importação a invalidam após
+ * o commit. A validade ({@code medpro.agenda.validade}) só limita por quanto tempo uma troca de nome do
+ * paciente aparece desatualizada.
+ */
+@Service
+public class AgendaMedico {
+
+    private static final int DIAS_DE_ATENDIMENTO = 6;
+
+    private final Cache<Semana, DadosAgendaSemana> semanas;
+    private final ConsultaRepository consultaRepo;
+
+    public AgendaMedico(ConsultaRepository consultaRepo, @Value("${medpro.agenda.validade:60s}") Duration validade) {
+        this.consultaRepo = consultaRepo;
+        this.semanas = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(validade)
+                .build();
+    }
+
+    // Semana que contém o dia informado
+    public DadosAgendaSemana semana(Long medicoId, LocalDate dia) {
+        return semanas.get(new Semana(medicoId, segunda(dia)), this::montar);
+    }
+
+    // Chamado dentro da transação que grava a consulta; a semana só sai do cache após o commit
+    public void alterada(Long medicoId, LocalDateTime dataHora) {
+        var semana = new Semana(medicoId, segunda(dataHora.toLocalDate()));
+        Transacoes.aposCommit(() -> semanas.invalidate(semana));
+    }
+
+    private DadosAgendaSemana montar(Semana semana) {
+        var inicio = semana.segunda();
+        var consultas = consultaRepo.listarAgendaDoMedico(semana.medicoId(), inicio.atStartOfDay(),
+                inicio.plusDays(DIAS_DE_ATENDIMENTO).atStartOfDay());
+
+        // consultas vem em ordem de data_hora: um único avanço pela lista enquanto a grade é percorrida
+        var dias = new ArrayList<DadosAgendaDia>(DIAS_DE_ATENDIMENTO);
+        int proxima = 0;
+        for (int d = 0; d < DIAS_DE_ATENDIMENTO; d++) {
+            var dia = inicio.plusDays(d);
+            var horarios = new ArrayList<DadosHorarioAgenda>(OcupacaoAgenda.HORARIOS_POR_DIA);
+            for (int hora = OcupacaoAgenda.PRIMEIRA_HORA; hora <= OcupacaoAgenda.ULTIMA_HORA; hora++) {
+                var horario = dia.atTime(hora, 0);
+                var fim = horario.plusHours(1);
+                var ocupado = false;
+                while (proxima < consultas.size() && consultas.get(proxima).dataHora().isBefore(fim)) {
+                    var consulta = consultas.get(proxima++);
+                    // Antes do horário atual só sobra o que está fora do funcionamento
+                    if (!consulta.dataHora().isBefore(horario)) {
+                        horarios.add(DadosHorarioAgenda.ocupado(consulta));
+                        ocupado = true;
+                    }
+                }
+                if (!ocupado) {
+                    horarios.add(DadosHorarioAgenda.livre(horario));
+                }
+            }
+            dias.add(new DadosAgendaDia(dia, horarios));
+        }
+        return new DadosAgendaSemana(semana.medicoId(), inicio, dias);
+    }
+
+    private static LocalDate segunda(LocalDate dia) {
+        return dia.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private record Semana(Long medicoId, LocalDate segunda) {}
+}
@@ -0,0 +1,341 @@
+package com.medpro.medpro.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medpro.medpro.enums.SituacaoSolicitacao;
+import com.medpro.medpro.infra.exception.RequisicaoInvalidaException;
+import com.medpro.medpro.infra.metricas.MetricasAgendamento;
+import com.medpro.medpro.model.dto.DadosAgendamentoConsulta;
+import com.medpro.medpro.model.dto.DadosOcupacaoConsulta;
+import com.medpro.medpro.model.dto.DadosSituacaoCadastro;
+import com.medpro.medpro.model.dto.DadosSolicitacaoAgendamento;
+import com.medpro.medpro.repository.MedicoRepository;
+import com.medpro.medpro.repository.PacienteRepository;
+import com.medpro.medpro.service.regras.ContextoAgendamento;
+import com.medpro.medpro.service.regras.CustoValidacao;
+import com.medpro.medpro.service.regras.FonteCadastros;
+import com.medpro.medpro.service.regras.MotivoRejeicao;
+import com.medpro.medpro.service.regras.MotorRegrasAgendamento;
+import com.medpro.medpro.service.regras.SituacaoCadastros;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Agendamento assíncrono para picos de demanda (campanhas): a requisição é validada contra o índice em
+ * memória, reserva o horário (teste e marcação atômicos no {@link OcupacaoAgenda}) e entra numa fila; a
+ * gravação acontece em lotes, num único batch JDBC por lote.
+ * <p>
+ * Cada solicitação é identificada pela chave de idempotência do cliente. O resultado fica em memória
+ * (inclusive enquanto pendente) e, assim que decidido, em {@code solicitacoes_agendamento}: recusas da
+ * recepção na hora, confirmações e recusas do lote junto com a gravação. Repetir a chave devolve o resultado
+ * original sem reprocessar. Solicitações ainda na fila são gravadas no desligamento,
+ * mas se perdem numa queda do processo (o cliente vê a chave como desconhecida e pode reenviar).
+ * <p>
+ * Se a gravação de um lote falhar por outro motivo que não um conflito de chave única (banco fora do ar,
+ * timeout), as solicitações ainda pendentes do lote liberam o horário reservado e ficam em {@code FALHA};
+ * a mesma chave pode então ser reenviada.
+ */
+@Service
+public class AgendamentoAssincrono {
+
+    public static final int TAMANHO_MAXIMO_CHAVE = 64;
+
+    private static final Logger log = LoggerFactory.getLogger(AgendamentoAssincrono.class);
+
+    private static final String INSERT_CONSULTA = """
+            insert into consultas (medico_id, paciente_id, data_hora, motivo, situacao, criado_em)
+            values (?, ?, ?, ?, 'AGENDADA', ?)
+            """;
+
+    private static final String INSERT_SOLICITACAO = """
+            insert ignore into solicitacoes_agendamento (chave, situacao, consulta_id, motivo, criado_em)
+            values (?, ?, ?, ?, ?)
+            """;
+
+    private static final String SELECT_SOLICITACAO = """
+            select s.situacao, s.consulta_id, s.motivo from solicitacoes_agendamento s
+            where s.chave = ?
+            """;
+
+    private static final String MENSAGEM_FALHA = "Falha ao gravar o agendamento; reenvie a solicitação.";
+
+    // Pendentes pesam zero e não são removidas por tamanho: são a única referência à reserva feita na recepção
+    private final Cache<String, DadosSolicitacaoAgendamento> solicitacoes = Caffeine.newBuilder()
+            .maximumWeight(100_000)
+            .weigher((String chave, DadosSolicitacaoAgendamento s) -> s.situacao() == SituacaoSolicitacao.PENDENTE ? 0 : 1)
+            .expireAfterWrite(Duration.ofHours(24))
+            .build();
+
+    private final BlockingQueue<Pendente> fila;
+    private final int tamanhoLote;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transacao;
+    private final PacienteRepository pacienteRepo;
+    private final MedicoRepository medicoRepo;
+    private final OcupacaoAgenda ocupacao;
+    private final SeletorMedico seletorMedico;
+    private final MotorRegrasAgendamento regras;
+    private final MetricasAgendamento metricas;
+    private final EstatisticasAgenda estatisticas;
+    private final AgendaMedico agenda;
+
+    public AgendamentoAssincrono(
+            @Value("${medpro.agendamento.assincrono.capacidade:10000}") int capacidade,
+            @Value("${medpro.agendamento.assincrono.lote:500}") int tamanhoLote,
+            JdbcTemplate jdbc, TransactionTemplate transacao, PacienteRepository pacienteRepo,
+            MedicoRepository medicoRepo, OcupacaoAgenda ocupacao, SeletorMedico seletorMedico,
+            MotorRegrasAgendamento regras, MetricasAgendamento metricas, EstatisticasAgenda estatisticas,
+            AgendaMedico agenda) {
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.tamanhoLote = tamanhoLote;
+        this.jdbc = jdbc;
+        this.transacao = transacao;
+        this.pacienteRepo = pacienteRepo;
+        this.medicoRepo = medicoRepo;
+        this.ocupacao = ocupacao;
+        this.seletorMedico = seletorMedico;
+        this.regras = regras;
+        this.metricas = metricas;
+        this.estatisticas = estatisticas;
+        this.agenda = agenda;
+    }
+
+    /**
+     * Recebe a solicitação. Se a chave já é conhecida, devolve o resultado registrado para ela.
+     *
+     * @throws RejectedExecutionException se a fila de gravação estiver cheia
+     */
+    public DadosSolicitacaoAgendamento receber(String chave, DadosAgendamentoConsulta dados) {
+        if (chave == null || chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new RequisicaoInvalidaException("Informe o cabeçalho Idempotency-Key com até " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+        }
+        var existente = consultar(chave);
+        if (existente.isPresent() && existente.get().situacao() != SituacaoSolicitacao.FALHA) {
+            return existente.get();
+        }
+        // Chave nova ou que falhou na gravação; entre requisições concorrentes com a mesma chave, só uma segue
+        var pendente = DadosSolicitacaoAgendamento.pendente(chave);
+        var registrada = solicitacoes.asMap().compute(chave,
+                (k, atual) -> atual == null || atual.situacao() == SituacaoSolicitacao.FALHA ? pendente : atual);
+        if (registrada != pendente) {
+            return registrada;
+        }
+
+        var contexto = new ContextoAgendamento(dados.pacienteId(), dados.medicoId(), dados.dataHora(), dados.especialidade(),
+                LocalDateTime.now(), null);
+        var motivo = regras.validar(contexto, CustoValidacao.MEMORIA);
+        var medicoId = dados.medicoId();
+        if (motivo == null && medicoId == null) {
+            var livre = seletorMedico.escolherIdMedicoLivre(dados.especialidade(), dados.dataHora());
+            motivo = livre.isEmpty() ? MotivoRejeicao.SEM_MEDICO_LIVRE : null;
+            medicoId = livre.orElse(null);
+        }
+        if (motivo == null) {
+            // Entre recepções concorrentes do mesmo horário (ou do mesmo dia do paciente), só uma reserva
+            motivo = ocupacao.reservar(medicoId, dados.pacienteId(), dados.dataHora());
+        }
+        if (motivo != null) {
+            metricas.rejeicao(motivo.regra(), dados.especialidade());
+            var recusada = DadosSolicitacaoAgendamento.recusada(chave, motivo.mensagem());
+            // Gravada já na recepção: fora da memória (expiração, reinício), a chave ainda devolve a recusa
+            try {
+                registrar(List.of(recusada));
+            } catch (RuntimeException e) {
+                solicitacoes.invalidate(chave);
+                throw e;
+            }
+            solicitacoes.put(chave, recusada);
+            return recusada;
+        }
+
+        var item = new Pendente(chave, medicoId, dados.pacienteId(), dados.dataHora(), dados.motivoConsulta(), LocalDateTime.now());
+        if (!fila.offer(item)) {
+            ocupacao.desfazerReserva(medicoId, dados.pacienteId(), dados.dataHora());
+            solicitacoes.invalidate(chave);
+            throw new RejectedExecutionException("Fila de agendamentos cheia.");
+        }
+        return pendente;
+    }
+
+    public Optional<DadosSolicitacaoAgendamento> consultar(String chave) {
+        var solicitacao = solicitacoes.getIfPresent(chave);
+        if (solicitacao != null) {
+            return Optional.of(solicitacao);
+        }
+        // Fora da memória (reinício ou expiração): resultado já gravado
+        var gravada = jdbc.query(SELECT_SOLICITACAO, (rs, linha) -> new DadosSolicitacaoAgendamento(chave,
+                SituacaoSolicitacao.valueOf(rs.getString("situacao")), rs.getObject("consulta_id", Long.class),
+                rs.getString("motivo")), chave).stream().findFirst();
+        gravada.ifPresent(s -> solicitacoes.put(chave, s));
+        return gravada;
+    }
+
+    // Group commit: esvazia a fila em lotes de até tamanhoLote solicitações
+    @Scheduled(fixedDelayString = "${medpro.agendamento.assincrono.intervalo:50}")
+    @PreDestroy
+    public void gravarPendentes() {
+        var lote = new ArrayList<Pendente>(tamanhoLote);
+        while (fila.drainTo(lote, tamanhoLote) > 0) {
+            var etapa = metricas.iniciar();
+            try {
+                gravar(lote);
+            } catch (RuntimeException e) {
+                log.error("Falha ao gravar lote de {} agendamentos", lote.size(), e);
+                falhar(lote);
+            }
+            metricas.etapa("gravacao_lote", etapa);
+            lote.clear();
+        }
+    }
+
+    // Só o que ainda está pendente: confirmadas e recusadas já saíram desse estado (e recusadas já devolveram a
+    // reserva). Com o banco fora do ar, a reserva é desfeita sem conferir o que está gravado
+    private void falhar(List<Pendente> lote) {
+        for (var item : lote) {
+            var atual = solicitacoes.getIfPresent(item.chave());
+            if (atual != null && atual.situacao() == SituacaoSolicitacao.PENDENTE) {
+                ocupacao.desfazerReserva(item.medicoId(), item.pacienteId(), item.dataHora());
+                solicitacoes.put(item.chave(), DadosSolicitacaoAgendamento.falha(item.chave(), MENSAGEM_FALHA));
+            }
+        }
+    }
+
+    private void gravar(List<Pendente> lote) {
+        var pacientes = situacao(pacienteRepo.listarSituacao(
+                lote.stream().map(Pendente::pacienteId).collect(Collectors.toSet())));
+        var medicos = situacao(medicoRepo.listarSituacao(
+                lote.stream().map(Pendente::medicoId).collect(Collectors.toSet())));
+        FonteCadastros fonte = (pacienteId, medicoId) ->
+                new SituacaoCadastros(pacientes.get(pacienteId), medicos.get(medicoId), null);
+
+        // As regras de memória já rodaram na recepção (e o horário está reservado); aqui só as de banco
+        var aceitas = new ArrayList<Pendente>(lote.size());
+        var recusadas = new ArrayList<Recusa>();
+        for (var item : lote) {
+            var contexto = new ContextoAgendamento(item.pacienteId(), item.medicoId(), item.dataHora(), null,
+                    item.recebidaEm(), fonte);
+            var motivo = regras.validar(contexto, CustoValidacao.BANCO);
+            if (motivo == null) {
+                // consultas não tem FK: a existência é conferida aqui, independente dos validadores
+                motivo = ImportacaoConsultas.existencia(pacientes, medicos, item.pacienteId(), item.medicoId());
+            }
+            if (motivo != null) {
+                metricas.rejeicao(motivo.regra(), null);
+                recusadas.add(new Recusa(item, motivo.mensagem()));
+            } else {
+                aceitas.add(item);
+            }
+        }
+        confirmar(aceitas, recusadas);
+        if (recusadas.isEmpty()) {
+            return;
+        }
+
+        // Devolve as reservas antes de publicar as recusas: se a devolução falhar, elas ainda estão pendentes
+        // e falhar() desfaz a reserva. Depois de publicadas, uma falha ao gravá-las não devolve de novo
+        ocupacao.devolver(recusadas.stream().map(r -> r.item().reserva()).toList());
+        var resultados = recusadas.stream()
+                .map(r -> DadosSolicitacaoAgendamento.recusada(r.item().chave(), r.motivo()))
+                .toList();
+        resultados.forEach(s -> solicitacoes.put(s.chave(), s));
+        transacao.executeWithoutResult(status -> registrar(resultados));
+    }
+
+    private void confirmar(List<Pendente> aceitas, List<Recusa> recusadas) {
+        if (aceitas.isEmpty()) {
+            return;
+        }
+        try {
+            var confirmadas = transacao.execute(status -> inserir(aceitas));
+            confirmadas.forEach(s -> solicitacoes.put(s.chave(), s));
+        } catch (DataIntegrityViolationException e) {
+            if (aceitas.size() == 1) {
+                // A chave única prova que a consulta existe: a devolução mantém o bit dela marcado
+                recusadas.add(new Recusa(aceitas.get(0), ImportacaoConsultas.motivoConflito(e)));
+                return;
+            }
+            // Lote recusado pelo banco: refaz uma a uma para isolar os conflitos
+            for (var item : aceitas) {
+                confirmar(List.of(item), recusadas);
+            }
+        }
+    }
+
+    private List<DadosSolicitacaoAgendamento> inserir(List<Pendente> aceitas) {
+        var chaves = new GeneratedKeyHolder();
+        jdbc.batchUpdate(con -> con.prepareStatement(INSERT_CONSULTA, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        var item = aceitas.get(i);
+                        ps.setLong(1, item.medicoId());
+                        ps.setLong(2, item.pacienteId());
+                        ps.setTimestamp(3, Timestamp.valueOf(item.dataHora()));
+                        ps.setString(4, item.motivo());
+                        ps.setTimestamp(5, Timestamp.valueOf(item.recebidaEm()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return aceitas.size();
+                    }
+                }, chaves);
+
+        // Chaves geradas na ordem do batch
+        var ids = chaves.getKeyList();
+        var confirmadas = new ArrayList<DadosSolicitacaoAgendamento>(aceitas.size());
+        for (int i = 0; i < aceitas.size(); i++) {
+            var consultaId = ((Number) ids.get(i).values().iterator().next()).longValue();
+            confirmadas.add(DadosSolicitacaoAgendamento.confirmada(aceitas.get(i).chave(), consultaId));
+            estatisticas.agendada(aceitas.get(i).medicoId(), aceitas.get(i).dataHora());
+            agenda.alterada(aceitas.get(i).medicoId(), aceitas.get(i).dataHora());
+        }
+        registrar(confirmadas);
+        return confirmadas;
+    }
+
+    private void registrar(List<DadosSolicitacaoAgendamento> resultados) {
+        var agora = LocalDateTime.now();
+        jdbc.batchUpdate(INSERT_SOLICITACAO, resultados.stream()
+                .map(s -> new Object[] { s.chave(), s.situacao().name(), s.consultaId(), s.motivo(), agora })
+                .toList());
+    }
+
+    private static Map<Long, Boolean> situacao(List<DadosSituacaoCadastro> cadastros) {
+        return cadastros.stream().collect(Collectors.toMap(DadosSituacaoCadastro::id, DadosSituacaoCadastro::ativo));
+    }
+
+    private record Pendente(String chave, Long medicoId, Long pacienteId, LocalDateTime dataHora, String motivo,
+            LocalDateTime recebidaEm) {
+
+        DadosOcupacaoConsulta reserva() {
+            return new DadosOcupacaoConsulta(medicoId, pacienteId, dataHora);
+        }
+    }
+
+    private record Recusa(Pendente item, String motivo) {}
+}
@@ -0,0 +1,171 @@
+package com.medpro.medpro.service;
+
+import com.medpro.medpro.model.dto.DadosDetalhamentoConsulta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Manutenção das partições mensais de {@code consultas} (V13) e arquivamento do histórico.
+ * <p>
+ * Todo dia: garante partições para os próximos meses (dividindo {@code p_futuro}), move para
+ * {@code consultas_arquivo}, em lotes, as consultas com mais de N meses e descarta as partições antigas
+ * que ficaram vazias. Consultas arquivadas continuam visíveis em {@code GET /consultas/{id}}.
+ */
+@Service
+public class ArquivamentoConsultas {
+
+    private static final Pattern PARTICAO_MENSAL = Pattern.compile("p(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter NOME_PARTICAO = DateTimeFormatter.ofPattern("'p'yyyy_MM");
+
+    private static final String SELECT_PARTICOES = """
+            select p.partition_name from information_schema.partitions p
+            where p.table_schema = database() and p.table_name = 'consultas'
+            order by p.partition_ordinal_position
+            """;
+
+    private static final String SELECT_LOTE = """
+            select c.id from consultas c
+            where c.dia < ? and c.data_hora < ?
+            order by c.data_hora, c.id
+            limit ?
+            """;
+
+    private static final String INSERT_ARQUIVO = """
+            insert into consultas_arquivo (id, medico_id, paciente_id, data_hora, motivo, motivo_cancelamento,
+                                           situacao, criado_em, versao, arquivado_em)
+            select c.id, c.medico_id, c.paciente_id, c.data_hora, c.motivo, c.motivo_cancelamento,
+                   if(c.situacao = 'CANCELADA', 'CANCELADA', 'REALIZADA'), c.criado_em, c.versao, now()
+            from consultas c
+            where c.dia < ? and c.id in (%s)
+            """;
+
+    private static final String DELETE_LOTE = "delete from consultas where dia < ? and id in (%s)";
+
+    private static final String SELECT_ARQUIVADA = """
+            select a.id, a.medico_id, a.paciente_id, a.data_hora, a.motivo, a.motivo_cancelamento, a.situacao
+            from consultas_arquivo a
+            where a.id = ?
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transacao;
+    private final DetalhamentoCadastros detalhamento;
+    private final int meses;
+    private final int tamanhoLote;
+    private final int mesesAFrente;
+
+    public ArquivamentoConsultas(JdbcTemplate jdbc, TransactionTemplate transacao, DetalhamentoCadastros detalhamento,
+            @Value("${medpro.arquivamento.meses:12}") int meses,
+            @Value("${medpro.arquivamento.lote:1000}") int tamanhoLote,
+            @Value("${medpro.arquivamento.particoes-a-frente:12}") int mesesAFrente) {
+        this.jdbc = jdbc;
+        this.transacao = transacao;
+        this.detalhamento = detalhamento;
+        this.meses = meses;
+        this.tamanhoLote = tamanhoLote;
+        this.mesesAFrente = mesesAFrente;
+    }
+
+    @Scheduled(cron = "0 0 4 * * *")
+    public void executar() {
+        criarParticoesFuturas();
+        var limite = LocalDate.now().minusMonths(meses).withDayOfMonth(1);
+        arquivar(limite);
+        descartarParticoesVazias(limite);
+    }
+
+    public Optional<DadosDetalhamentoConsulta> detalhar(Long id) {
+        return jdbc.query(SELECT_ARQUIVADA, (rs, linha) -> new DadosDetalhamentoConsulta(
+                rs.getLong("id"),
+                rs.getTimestamp("data_hora").toLocalDateTime(),
+                rs.getString("situacao"),
+                rs.getString("motivo"),
+                rs.getString("motivo_cancelamento"),
+                detalhamento.medico(rs.getLong("medico_id")),
+                detalhamento.paciente(rs.getLong("paciente_id"))), id).stream().findFirst();
+    }
+
+    // Uma partição por mês até mesesAFrente meses adiante, sempre imediatamente antes de p_futuro
+    @EventListener(ApplicationReadyEvent.class)
+    public void criarParticoesFuturas() {
+        var ultima = ultimaParticaoMensal();
+        if (ultima == null) {
+            return;
+        }
+        var alvo = YearMonth.now().plusMonths(mesesAFrente);
+        for (var mes = ultima.plusMonths(1); !mes.isAfter(alvo); mes = mes.plusMonths(1)) {
+            jdbc.execute("alter table consultas reorganize partition p_futuro into ("
+                    + "partition " + mes.format(NOME_PARTICAO) + " values less than ('" + mes.plusMonths(1).atDay(1) + "'), "
+                    + "partition p_futuro values less than (maxvalue))");
+        }
+    }
+
+    // Move em lotes, cada lote na sua transação, para não segurar travas sobre muitas linhas.
+    // O filtro por dia (coluna de particionamento) restringe a busca às partições antigas.
+    void arquivar(LocalDate limite) {
+        List<Long> ids;
+        do {
+            ids = jdbc.queryForList(SELECT_LOTE, Long.class, limite, limite.atStartOfDay(), tamanhoLote);
+            if (ids.isEmpty()) {
+                return;
+            }
+            var marcadores = String.join(",", Collections.nCopies(ids.size(), "?"));
+            var parametros = new Object[ids.size() + 1];
+            parametros[0] = limite;
+            for (int i = 0; i < ids.size(); i++) {
+                parametros[i + 1] = ids.get(i);
+            }
+            transacao.executeWithoutResult(status -> {
+                jdbc.update(INSERT_ARQUIVO.formatted(marcadores), parametros);
+                jdbc.update(DELETE_LOTE.formatted(marcadores), parametros);
+            });
+        } while (ids.size() == tamanhoLote);
+    }
+
+    // Partições inteiramente antes do limite e já vazias saem com DROP PARTITION (sem DELETE linha a linha).
+    // p_anteriores e p_futuro ficam como fronteiras.
+    void descartarParticoesVazias(LocalDate limite) {
+        for (var nome : particoes()) {
+            var matcher = PARTICAO_MENSAL.matcher(nome);
+            if (!matcher.matches()) {
+                continue;
+            }
+            var fim = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))).plusMonths(1).atDay(1);
+            if (fim.isAfter(limite)) {
+                continue;
+            }
+            if (jdbc.queryForList("select 1 from consultas partition (" + nome + ") limit 1").isEmpty()) {
+                jdbc.execute("alter table consultas drop partition " + nome);
+            }
+        }
+    }
+
+    private YearMonth ultimaParticaoMensal() {
+        YearMonth ultima = null;
+        for (var nome : particoes()) {
+            var matcher = PARTICAO_MENSAL.matcher(nome);
+            if (matcher.matches()) {
+                ultima = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            }
+        }
+        return ultima;
+    }
+
+    private List<String> particoes() {
+        return jdbc.queryForList(SELECT_PARTICOES, String.class).stream().filter(Objects::nonNull).toList();
+    }
+}
@@ -0,0 +1,101 @@
+package com.medpro.medpro.service;
+
+import com.medpro.medpro.model.dto.DadosListagemMedico;
+import com.medpro.medpro.model.dto.DadosListagemPaciente;
+import com.medpro.medpro.repository.MedicoRepository;
+import com.medpro.medpro.repository.PacienteRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Busca de pacientes (nome ou CPF) e médicos (nome ou CRM) para a recepção, ativos apenas.
+ * <p>
+ * Texto com letras vai para o índice FULLTEXT de nome: cada palavra vira um prefixo obrigatório
+ * ({@code "maria silv"} -> {@code +maria* +silv*}), sem diferenciar acentos, ordenado por relevância.
+ * Texto só com dígitos (e pontuação de documento) busca por prefixo de CPF ou CRM.
+ */
+@Service
+public class BuscaCadastros {
+
+    public static final int LIMITE_PADRAO = 10;
+    public static final int LIMITE_MAXIMO = 50;
+
+    // Palavras menores que innodb_ft_min_token_size (3) não são indexadas: "da", "de", "do"...
+    private static final int TAMANHO_MINIMO_PALAVRA = 3;
+
+    private final PacienteRepository pacienteRepo;
+    private final MedicoRepository medicoRepo;
+
+    public BuscaCadastros(PacienteRepository pacienteRepo, MedicoRepository medicoRepo) {
+        this.pacienteRepo = pacienteRepo;
+        this.medicoRepo = medicoRepo;
+    }
+
+    public List<DadosListagemPaciente> pacientes(String texto, int limite) {
+        limite = limitar(limite);
+        var digitos = documento(texto);
+        if (digitos != null) {
+            return pacienteRepo.buscarPorCpf(digitos, limite).stream().map(DadosListagemPaciente::new).toList();
+        }
+        var termos = termos(texto);
+        if (termos.isEmpty()) {
+            return List.of();
+        }
+        return pacienteRepo.buscarPorNome(termos, limite).stream().map(DadosListagemPaciente::new).toList();
+    }
+
+    public List<DadosListagemMedico> medicos(String texto, int limite) {
+        limite = limitar(limite);
+        var digitos = documento(texto);
+        if (digitos != null) {
+            return medicoRepo.buscarPorCrm(digitos, PageRequest.ofSize(limite)).stream().map(DadosListagemMedico::new).toList();
+        }
+        var termos = termos(texto);
+        if (termos.isEmpty()) {
+            return List.of();
+        }
+        return medicoRepo.buscarPorNome(termos, limite).stream().map(DadosListagemMedico::new).toList();
+    }
+
+    // Dígitos do documento, ou null se o texto tiver algo além de dígitos e pontuação de CPF
+    static String documento(String texto) {
+        var digitos = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            var c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos.append(c);
+            } else if (c != '.' && c != '-' && c != ' ') {
+                return null;
+            }
+        }
+        return digitos.isEmpty() ? null : digitos.toString();
+    }
+
+    // Palavras do texto como prefixos obrigatórios; operadores do BOOLEAN MODE enviados pelo cliente são descartados
+    static String termos(String texto) {
+        var palavras = Arrays.stream(texto.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(palavra -> !palavra.isEmpty())
+                .toList();
+        var unica = palavras.size() == 1;
+        var termos = new StringBuilder();
+        for (var palavra : palavras) {
+            // Uma palavra curta sozinha ainda serve como prefixo (digitação em andamento)
+            if (!unica && palavra.length() < TAMANHO_MINIMO_PALAVRA) {
+                continue;
+            }
+            if (!termos.isEmpty()) {
+                termos.append(' ');
+            }
+            termos.append('+').append(palavra).append('*');
+        }
+        return termos.toString();
+    }
+
+    private static int limitar(int limite) {
+        return limite < 1 ? LIMITE_PADRAO : Math.min(limite, LIMITE_MAXIMO);
+    }
+}
@@ -0,0 +1,113 @@
+package com.medpro.medpro.service;
+
+import com.medpro.medpro.model.dto.DadosDetalhamentoMedico;
+import com.medpro.medpro.model.dto.DadosDetalhamentoPaciente;
+import com.medpro.medpro.model.entity.Medico;
+import com.medpro.medpro.model.entity.Paciente;
+import com.medpro.medpro.repository.MedicoRepository;
+import com.medpro.medpro.repository.PacienteRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Detalhamento de médicos e pacientes com cache (Caffeine, limitado por tamanho e TTL;
+ * ver {@code spring.cache.caffeine.spec}). O cache guarda os DTOs, nunca entidades gerenciadas.
+ * Quem altera um cadastro chama {@link #removerMedico}/{@link #removerPaciente}; a remoção
+ * acontece após o commit para que um leitor concorrente não recoloque a versão antiga.
+ * Pelo mesmo motivo o cache é carregado fora de transações somente leitura, sempre da primária:
+ * uma versão atrasada da réplica ficaria no cache até expirar.
+ */
+@Service
+public class DetalhamentoCadastros {
+
+    public static final String CACHE_MEDICOS = "medicos";
+    public static final String CACHE_PACIENTES = "pacientes";
+    public static final int MAXIMO_IDS = 500;
+
+    private final MedicoRepository medicoRepo;
+    private final PacienteRepository pacienteRepo;
+    private final CacheManager cacheManager;
+
+    public DetalhamentoCadastros(MedicoRepository medicoRepo, PacienteRepository pacienteRepo, CacheManager cacheManager) {
+        this.medicoRepo = medicoRepo;
+        this.pacienteRepo = pacienteRepo;
+        this.cacheManager = cacheManager;
+    }
+
+    @Cacheable(CACHE_MEDICOS)
+    public DadosDetalhamentoMedico medico(Long id) {
+        return medicoRepo.findById(id).map(DadosDetalhamentoMedico::new).orElseThrow(EntityNotFoundException::new);
+    }
+
+    @Cacheable(CACHE_PACIENTES)
+    public DadosDetalhamentoPaciente paciente(Long id) {
+        return pacienteRepo.findById(id).map(DadosDetalhamentoPaciente::new).orElseThrow(EntityNotFoundException::new);
+    }
+
+    // Vários médicos de uma vez: o que falta no cache vem numa única consulta IN; ids inexistentes são omitidos
+    public List<DadosDetalhamentoMedico> medicos(Collection<Long> ids) {
+        return emLote(CACHE_MEDICOS, DadosDetalhamentoMedico.class, ids,
+                faltantes -> medicoRepo.findAllById(faltantes).stream()
+                        .collect(Collectors.toMap(Medico::getId, DadosDetalhamentoMedico::new)));
+    }
+
+    public List<DadosDetalhamentoPaciente> pacientes(Collection<Long> ids) {
+        return emLote(CACHE_PACIENTES, DadosDetalhamentoPaciente.class, ids,
+                faltantes -> pacienteRepo.findAllById(faltantes).stream()
+                        .collect(Collectors.toMap(Paciente::getId, DadosDetalhamentoPaciente::new)));
+    }
+
+    public void removerMedico(Long id) {
+        remover(CACHE_MEDICOS, id);
+    }
+
+    public void removerPaciente(Long id) {
+        remover(CACHE_PACIENTES, id);
+    }
+
+    private <T> List<T> emLote(String nome, Class<T> tipo, Collection<Long> ids, Function<List<Long>, Map<Long, T>> carregar) {
+        var cache = cacheManager.getCache(nome);
+        var encontrados = new HashMap<Long, T>();
+        var faltantes = new ArrayList<Long>();
+        for (var id : ids) {
+            var valor = cache != null ? cache.get(id, tipo) : null;
+            if (valor != null) {
+                encontrados.put(id, valor);
+            } else {
+                faltantes.add(id);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            var carregados = carregar.apply(faltantes);
+            if (cache != null) {
+                carregados.forEach(cache::put);
+            }
+            encontrados.putAll(carregados);
+        }
+        var resultado = new ArrayList<T>(ids.size());
+        for (var id : ids) {
+            var valor = encontrados.get(id);
+            if (valor != null) {
+                resultado.add(valor);
+            }
+        }
+        return resultado;
+    }
+
+    private void remover(String nome, Long id) {
+        var cache = cacheManager.getCache(nome);
+        if (cache != null) {
+            Transacoes.aposCommit(() -> cache.evict(id));
+        }
+    }
+}
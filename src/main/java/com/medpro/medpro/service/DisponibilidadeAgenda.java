@@ -0,0 +1,110 @@
+package com.medpro.medpro.service;
+
+import com.medpro.medpro.enums.Especialidade;
+import com.medpro.medpro.model.dto.DadosHorariosLivres;
+import com.medpro.medpro.repository.ConsultaRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Horários livres por médico de uma especialidade em um período, com as mesmas regras do agendamento
+ * (início das 07:00 às 18:00, domingo fechado, 30 minutos de antecedência).
+ * <p>
+ * A resposta sai das máscaras do {@link OcupacaoAgenda}: para cada dia e médico, os horários livres são
+ * {@code ~ocupados & TODOS_OS_HORARIOS}. Antes da carga do índice, a ocupação do período vem de uma
+ * única consulta ao banco.
+ */
+@Service
+public class DisponibilidadeAgenda {
+
+    public static final int MAXIMO_DIAS = 31;
+
+    private static final LocalTime[] HORARIOS = new LocalTime[OcupacaoAgenda.HORARIOS_POR_DIA];
+
+    static {
+        for (int i = 0; i < HORARIOS.length; i++) {
+            HORARIOS[i] = LocalTime.of(OcupacaoAgenda.PRIMEIRA_HORA + i, 0);
+        }
+    }
+
+    private final OcupacaoAgenda ocupacao;
+    private final SeletorMedico seletorMedico;
+    private final ConsultaRepository consultaRepo;
+
+    public DisponibilidadeAgenda(OcupacaoAgenda ocupacao, SeletorMedico seletorMedico, ConsultaRepository consultaRepo) {
+        this.ocupacao = ocupacao;
+        this.seletorMedico = seletorMedico;
+        this.consultaRepo = consultaRepo;
+    }
+
+    // Período inclusivo [de, ate]
+    public List<DadosHorariosLivres> buscar(Especialidade especialidade, LocalDate de, LocalDate ate) {
+        var medicos = seletorMedico.medicosAtivos(especialidade);
+        var ocupados = mapaDeOcupacao(especialidade, de, ate);
+        var minimo = LocalDateTime.now().plusMinutes(30);
+
+        var livres = new ArrayList<DadosHorariosLivres>();
+        for (var dia = de; !dia.isAfter(ate); dia = dia.plusDays(1)) {
+            if (dia.getDayOfWeek() == DayOfWeek.SUNDAY || dia.isBefore(minimo.toLocalDate())) {
+                continue;
+            }
+            var permitidos = mascaraPermitida(dia, minimo);
+            for (var medicoId : medicos) {
+                var mascara = permitidos & ~ocupados.mascara(medicoId, dia);
+                if (mascara != 0) {
+                    livres.add(new DadosHorariosLivres(medicoId, dia, horarios(mascara)));
+                }
+            }
+        }
+        return livres;
+    }
+
+    // Horários que ainda respeitam a antecedência mínima no dia
+    private static int mascaraPermitida(LocalDate dia, LocalDateTime minimo) {
+        if (dia.isAfter(minimo.toLocalDate())) {
+            return OcupacaoAgenda.TODOS_OS_HORARIOS;
+        }
+        var mascara = 0;
+        for (int i = 0; i < HORARIOS.length; i++) {
+            if (!dia.atTime(HORARIOS[i]).isBefore(minimo)) {
+                mascara |= 1 << i;
+            }
+        }
+        return mascara;
+    }
+
+    private static List<LocalTime> horarios(int mascara) {
+        var horarios = new ArrayList<LocalTime>(Integer.bitCount(mascara));
+        for (int restante = mascara; restante != 0; restante &= restante - 1) {
+            horarios.add(HORARIOS[Integer.numberOfTrailingZeros(restante)]);
+        }
+        return horarios;
+    }
+
+    private Ocupados mapaDeOcupacao(Especialidade especialidade, LocalDate de, LocalDate ate) {
+        if (ocupacao.carregado()) {
+            return ocupacao::horariosOcupadosDoMedico;
+        }
+        Map<Long, Map<LocalDate, Integer>> mascaras = new HashMap<>();
+        for (var c : consultaRepo.listarOcupacaoDaEspecialidade(especialidade, de.atStartOfDay(), ate.plusDays(1).atStartOfDay())) {
+            if (c.dataHora().getMinute() == 0 && c.dataHora().getSecond() == 0) {
+                mascaras.computeIfAbsent(c.medicoId(), k -> new HashMap<>())
+                        .merge(c.dataHora().toLocalDate(), OcupacaoAgenda.bit(c.dataHora()), (a, b) -> a | b);
+            }
+        }
+        return (medicoId, dia) -> mascaras.getOrDefault(medicoId, Map.of()).getOrDefault(dia, 0);
+    }
+
+    @FunctionalInterface
+    private interface Ocupados {
+        int mascara(Long medicoId, LocalDate dia);
+    }
+}
@@ -0,0 +1,13 @@
+package com.medpro.medpro.service;
+
+import com.medpro.medpro.model.dto.DadosLembreteConsulta;
+
+/**
+ * Canal de entrega dos lembretes de consulta (e-mail, SMS...).
+ * A implementação ativa é selecionada pela propriedade {@code medpro.lembretes.envio}.
+ * Uma exceção conta como falha: o lembrete volta para a fila e é tentado de novo mais tarde.
+ */
+public interface EnvioLembrete {
+
+    void enviar(DadosLembreteConsulta lembrete) throws Exception;
+}
@@ -0,0 +1,32 @@
+package com.medpro.medpro.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medpro.medpro.model.dto.DadosLembreteConsulta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Substituto para testes de carga: um lembrete por linha (NDJSON) em medpro.lembretes.arquivo
+@Component
+@ConditionalOnProperty(name = "medpro.lembretes.envio", havingValue = "arquivo")
+public class EnvioLembreteArquivo implements EnvioLembrete {
+
+    private final Path arquivo;
+    private final ObjectMapper mapper;
+
+    public EnvioLembreteArquivo(@Value("${medpro.lembretes.arquivo:lembretes.ndjson}") Path arquivo, ObjectMapper mapper) {
+        this.arquivo = arquivo;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public synchronized void enviar(DadosLembreteConsulta lembrete) throws IOException {
+        Files.writeString(arquivo, mapper.writeValueAsString(lembrete) + "\n",
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
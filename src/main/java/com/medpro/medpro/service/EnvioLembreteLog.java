@@ -0,0 +1,21 @@
+package com.medpro.medpro.service;
+
+import com.medpro.medpro.model.dto.DadosLembreteConsulta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Substituto para desenvolvimento: o lembrete só vai para o log
+@Component
+@ConditionalOnProperty(name = "medpro.lembretes.envio", havingValue = "log", matchIfMissing = true)
+public class EnvioLembreteLog implements EnvioLembrete {
+
+    private static final Logger log = LoggerFactory.getLogger(EnvioLembreteLog.class);
+
+    @Override
+    public void enviar(DadosLembreteConsulta lembrete) {
+        log.info("Lembrete {}: {} <{}>, consulta {} em {} com {} ({})", lembrete.id(), lembrete.paciente(),
+                lembrete.email(), lembrete.consultaId(), lembrete.dataHora(), lembrete.medico(), lembrete.especialidade());
+    }
+}
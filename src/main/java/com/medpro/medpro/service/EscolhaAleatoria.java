@@ -0,0 +1,30 @@
+package com.medpro.medpro.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// Regra: Escolha aleatória de médico (uniforme entre os médicos livres)
+@Component
+@ConditionalOnProperty(name = "medpro.agendamento.estrategia-medico", havingValue = "aleatoria", matchIfMissing = true)
+public class EscolhaAleatoria implements EstrategiaEscolhaMedico {
+
+    private final OcupacaoAgenda ocupacao;
+
+    public EscolhaAleatoria(OcupacaoAgenda ocupacao) {
+        this.ocupacao = ocupacao;
+    }
+
+    @Override
+    public Optional<Long> escolher(long[] candidatos, LocalDateTime dataHora) {
+        var sorteio = new SorteioSemRepeticao(candidatos.length);
+        for (int i = sorteio.proximo(); i >= 0; i = sorteio.proximo()) {
+            if (!ocupacao.medicoOcupado(candidatos[i], dataHora)) {
+                return Optional.of(candidatos[i]);
+            }
+        }
+        return Optional.empty();
+    }
+}
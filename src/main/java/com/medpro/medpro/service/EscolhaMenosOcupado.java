@@ -0,0 +1,44 @@
+package com.medpro.medpro.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Sorteia dois médicos livres e fica com o que tem menos consultas no dia ("power of two choices").
+ * Espalha a carga quase tão bem quanto escolher o menos ocupado de todos, sem percorrer a especialidade inteira.
+ */
+@Component
+@ConditionalOnProperty(name = "medpro.agendamento.estrategia-medico", havingValue = "menos-ocupado")
+public class EscolhaMenosOcupado implements EstrategiaEscolhaMedico {
+
+    private final OcupacaoAgenda ocupacao;
+
+    public EscolhaMenosOcupado(OcupacaoAgenda ocupacao) {
+        this.ocupacao = ocupacao;
+    }
+
+    @Override
+    public Optional<Long> escolher(long[] candidatos, LocalDateTime dataHora) {
+        var dia = dataHora.toLocalDate();
+        var sorteio = new SorteioSemRepeticao(candidatos.length);
+        Long escolhido = null;
+        for (int i = sorteio.proximo(); i >= 0; i = sorteio.proximo()) {
+            var medicoId = candidatos[i];
+            if (ocupacao.medicoOcupado(medicoId, dataHora)) {
+                continue;
+            }
+            if (escolhido == null) {
+                escolhido = medicoId;
+                continue;
+            }
+            if (ocupacao.cargaDoMedicoNoDia(medicoId, dia) < ocupacao.cargaDoMedicoNoDia(escolhido, dia)) {
+                escolhido = medicoId;
+            }
+            break;
+        }
+        return Optional.ofNullable(escolhido);
+    }
+}
@@ -0,0 +1,289 @@
+package com.medpro.medpro.service;
+
+import com.medpro.medpro.enums.Especialidade;
+import com.medpro.medpro.model.dto.DadosEstatisticasDia;
+import jakarta.annotation.PreDestroy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Totais diários de consultas agendadas e canceladas, por médico e por especialidade, para o painel da gestão.
+ * <p>
+ * Agendamentos e cancelamentos gravam deltas em {@code estatisticas_deltas} na própria transação da consulta
+ * (um insert em lote antes do commit, sem linha disputada); a cada intervalo os deltas são somados com upsert
+ * nas tabelas {@code estatisticas_diarias_*} e apagados. Uma reconciliação diária recalcula, a partir de
+ * {@code consultas}, os dias de {@value #DIAS_RECONCILIADOS} dias atrás em diante.
+ * <p>
+ * Gravação e reconciliação não rodam juntas (uma trava para as duas). A reconciliação lê os deltas e
+ * {@code consultas} no mesmo snapshot, sem travas de leitura: como delta e consulta são commitados juntos,
+ * um delta visível é de consulta já contada no recálculo e é apagado; um delta commitado depois do snapshot
+ * não está nele nem no recálculo e entra na gravação seguinte.
+ */
+@Service
+public class EstatisticasAgenda {
+
+    public static final int MAXIMO_DIAS = 366;
+
+    static final int DIAS_RECONCILIADOS = 7;
+
+    private static final String UPSERT_MEDICO = """
+            insert into estatisticas_diarias_medico (medico_id, dia, agendadas, canceladas, canceladas_com_motivo)
+            values (?, ?, ?, ?, ?)
+            on duplicate key update
+            agendadas = agendadas + values(agendadas),
+            canceladas = canceladas + values(canceladas),
+            canceladas_com_motivo = canceladas_com_motivo + values(canceladas_com_motivo)
+            """;
+
+    private static final String UPSERT_ESPECIALIDADE = """
+            insert into estatisticas_diarias_especialidade (dia, especialidade, agendadas, canceladas, canceladas_com_motivo)
+            values (?, ?, ?, ?, ?)
+            on duplicate key update
+            agendadas = agendadas + values(agendadas),
+            canceladas = canceladas + values(canceladas),
+            canceladas_com_motivo = canceladas_com_motivo + values(canceladas_com_motivo)
+            """;
+
+    private static final String INSERT_DELTA = """
+            insert into estatisticas_deltas (medico_id, dia, agendadas, canceladas, canceladas_com_motivo)
+            values (?, ?, ?, ?, ?)
+            """;
+
+    private static final String SELECT_DELTAS = """
+            select d.id, d.medico_id, d.dia, d.agendadas, d.canceladas, d.canceladas_com_motivo
+            from estatisticas_deltas d
+            """;
+
+    private static final String DELETE_DELTA = "delete from estatisticas_deltas where id = ?";
+
+    // dia e data_hora: dia restringe as partições lidas, data_hora permite o intervalo em idx_consultas_data_hora
+    private static final String RECALCULAR = """
+            select c.medico_id, c.dia, m.especialidade, count(*) as agendadas,
+                   sum(c.situacao = 'CANCELADA') as canceladas,
+                   sum(c.situacao = 'CANCELADA' and coalesce(c.motivo_cancelamento, '') <> '') as canceladas_com_motivo
+            from consultas c
+            join medicos m on m.id = c.medico_id
+            where c.data_hora >= ?
+            and c.dia >= ?
+            group by c.medico_id, c.dia, m.especialidade
+            """;
+
+    private static final String SELECT_ESPECIALIDADE = """
+            select e.dia, e.especialidade, e.agendadas, e.canceladas, e.canceladas_com_motivo
+            from estatisticas_diarias_especialidade e
+            where e.dia between ? and ?
+            and (? is null or e.especialidade = ?)
+            order by e.dia, e.especialidade
+            """;
+
+    private static final String SELECT_MEDICO = """
+            select e.dia, e.agendadas, e.canceladas, e.canceladas_com_motivo
+            from estatisticas_diarias_medico e
+            where e.medico_id = ?
+            and e.dia between ? and ?
+            order by e.dia
+            """;
+
+    // Chave dos deltas da transação corrente no TransactionSynchronizationManager
+    private final Object deltasDaTransacao = new Object();
+    private final ReentrantLock gravacao = new ReentrantLock();
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transacao;
+    private final TransactionTemplate snapshot;
+    private final DetalhamentoCadastros detalhamento;
+
+    public EstatisticasAgenda(JdbcTemplate jdbc, TransactionTemplate transacao, DetalhamentoCadastros detalhamento) {
+        this.jdbc = jdbc;
+        this.transacao = transacao;
+        this.detalhamento = detalhamento;
+        // Sem readOnly: com a réplica habilitada, a leitura iria para ela e o snapshot poderia ficar atrás dos deltas
+        this.snapshot = new TransactionTemplate(transacao.getTransactionManager());
+        this.snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    // Chamados dentro da transação que grava a consulta; o delta é gravado e commitado junto com ela
+
+    public void agendada(Long medicoId, LocalDateTime dataHora) {
+        registrar(new Chave(medicoId, dataHora.toLocalDate()), new Delta(1, 0, 0));
+    }
+
+    public void cancelada(Long medicoId, LocalDateTime dataHora, String motivo) {
+        var delta = new Delta(0, 1, motivo == null || motivo.isBlank() ? 0 : 1);
+        registrar(new Chave(medicoId, dataHora.toLocalDate()), delta);
+    }
+
+    // Consulta movida de dia: sai da contagem do dia antigo e entra na do novo
+    public void reagendada(Long medicoId, LocalDateTime de, LocalDateTime para) {
+        if (de.toLocalDate().equals(para.toLocalDate())) {
+            return;
+        }
+        registrar(new Chave(medicoId, de.toLocalDate()), new Delta(-1, 0, 0));
+        registrar(new Chave(medicoId, para.toLocalDate()), new Delta(1, 0, 0));
+    }
+
+    public List<DadosEstatisticasDia> porEspecialidade(LocalDate de, LocalDate ate, Especialidade especialidade) {
+        var filtro = especialidade != null ? especialidade.name() : null;
+        return jdbc.query(SELECT_ESPECIALIDADE, (rs, linha) -> new DadosEstatisticasDia(
+                rs.getDate("dia").toLocalDate(), Especialidade.valueOf(rs.getString("especialidade")), null,
+                rs.getLong("agendadas"), rs.getLong("canceladas"), rs.getLong("canceladas_com_motivo")),
+                Date.valueOf(de), Date.valueOf(ate), filtro, filtro);
+    }
+
+    public List<DadosEstatisticasDia> doMedico(Long medicoId, LocalDate de, LocalDate ate) {
+        return jdbc.query(SELECT_MEDICO, (rs, linha) -> new DadosEstatisticasDia(
+                rs.getDate("dia").toLocalDate(), null, medicoId,
+                rs.getLong("agendadas"), rs.getLong("canceladas"), rs.getLong("canceladas_com_motivo")),
+                medicoId, Date.valueOf(de), Date.valueOf(ate));
+    }
+
+    @Scheduled(fixedDelayString = "${medpro.estatisticas.intervalo:10000}")
+    @PreDestroy
+    public void gravarPendentes() {
+        gravacao.lock();
+        try {
+            // Deltas commitados depois da leitura ficam na tabela para a próxima gravação
+            transacao.executeWithoutResult(status -> {
+                var deltas = lerDeltas();
+                if (deltas.ids().isEmpty()) {
+                    return;
+                }
+                gravar(deltas.totais(), Map.of());
+                apagar(deltas.ids());
+            });
+        } finally {
+            gravacao.unlock();
+        }
+    }
+
+    // Recalcula os dias recentes e futuros; os anteriores não mudam mais
+    @Scheduled(cron = "0 30 3 * * *")
+    public void reconciliar() {
+        var inicio = LocalDate.now().minusDays(DIAS_RECONCILIADOS);
+        gravacao.lock();
+        try {
+            snapshot.executeWithoutResult(status -> {
+                // Primeira leitura da transação: fixa o snapshot (REPEATABLE READ) em que consultas é recalculada
+                var deltas = lerDeltas();
+                var totais = new HashMap<Chave, Delta>();
+                var especialidades = new HashMap<Long, Especialidade>();
+                jdbc.query(RECALCULAR, rs -> {
+                    var chave = new Chave(rs.getLong("medico_id"), rs.getDate("dia").toLocalDate());
+                    totais.put(chave, new Delta(rs.getInt("agendadas"), rs.getInt("canceladas"), rs.getInt("canceladas_com_motivo")));
+                    especialidades.put(chave.medicoId(), Especialidade.valueOf(rs.getString("especialidade")));
+                }, inicio.atStartOfDay(), Date.valueOf(inicio));
+
+                // Totais recalculados substituem os dias recentes; deltas de dias anteriores continuam valendo
+                deltas.totais().forEach((chave, delta) -> {
+                    if (chave.dia().isBefore(inicio)) {
+                        totais.merge(chave, delta, Delta::somar);
+                    }
+                });
+                jdbc.update("delete from estatisticas_diarias_medico where dia >= ?", Date.valueOf(inicio));
+                jdbc.update("delete from estatisticas_diarias_especialidade where dia >= ?", Date.valueOf(inicio));
+                gravar(totais, especialidades);
+                apagar(deltas.ids());
+            });
+        } finally {
+            gravacao.unlock();
+        }
+    }
+
+    // Deltas da transação corrente, somados por médico e dia e gravados num único batch antes do commit
+    private void registrar(Chave chave, Delta delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            inserirDeltas(Map.of(chave, delta));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        var deltas = (Map<Chave, Delta>) TransactionSynchronizationManager.getResource(deltasDaTransacao);
+        if (deltas == null) {
+            var novos = new HashMap<Chave, Delta>();
+            TransactionSynchronizationManager.bindResource(deltasDaTransacao, novos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    inserirDeltas(novos);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(deltasDaTransacao);
+                }
+            });
+            deltas = novos;
+        }
+        deltas.merge(chave, delta, Delta::somar);
+    }
+
+    private void inserirDeltas(Map<Chave, Delta> deltas) {
+        jdbc.batchUpdate(INSERT_DELTA, deltas.entrySet().stream()
+                .map(e -> new Object[] { e.getKey().medicoId(), Date.valueOf(e.getKey().dia()), e.getValue().agendadas(),
+                        e.getValue().canceladas(), e.getValue().canceladasComMotivo() })
+                .toList());
+    }
+
+    private Deltas lerDeltas() {
+        var ids = new ArrayList<Object[]>();
+        var totais = new HashMap<Chave, Delta>();
+        jdbc.query(SELECT_DELTAS, rs -> {
+            ids.add(new Object[] { rs.getLong("id") });
+            totais.merge(new Chave(rs.getLong("medico_id"), rs.getDate("dia").toLocalDate()),
+                    new Delta(rs.getInt("agendadas"), rs.getInt("canceladas"), rs.getInt("canceladas_com_motivo")),
+                    Delta::somar);
+        });
+        return new Deltas(ids, totais);
+    }
+
+    // Só os deltas lidos: por id, sem travar os que as transações de agendamento estão inserindo
+    private void apagar(List<Object[]> ids) {
+        jdbc.batchUpdate(DELETE_DELTA, ids);
+    }
+
+    // Soma às linhas existentes (upsert); especialidades conhecidas evitam buscar o médico
+    private void gravar(Map<Chave, Delta> lote, Map<Long, Especialidade> especialidades) {
+        var porMedico = new ArrayList<Object[]>(lote.size());
+        var porEspecialidade = new HashMap<ChaveEspecialidade, Delta>();
+        lote.forEach((chave, delta) -> {
+            porMedico.add(new Object[] { chave.medicoId(), Date.valueOf(chave.dia()), delta.agendadas(), delta.canceladas(),
+                    delta.canceladasComMotivo() });
+            var especialidade = especialidades.get(chave.medicoId());
+            if (especialidade == null) {
+                especialidade = detalhamento.medico(chave.medicoId()).especialidade();
+            }
+            porEspecialidade.merge(new ChaveEspecialidade(chave.dia(), especialidade), delta, Delta::somar);
+        });
+        var linhasEspecialidade = new ArrayList<Object[]>(porEspecialidade.size());
+        porEspecialidade.forEach((chave, delta) -> linhasEspecialidade.add(new Object[] { Date.valueOf(chave.dia()),
+                chave.especialidade().name(), delta.agendadas(), delta.canceladas(), delta.canceladasComMotivo() }));
+
+        jdbc.batchUpdate(UPSERT_MEDICO, porMedico);
+        jdbc.batchUpdate(UPSERT_ESPECIALIDADE, linhasEspecialidade);
+    }
+
+    private record Chave(Long medicoId, LocalDate dia) {}
+
+    private record ChaveEspecialidade(LocalDate dia, Especialidade especialidade) {}
+
+    private record Deltas(List<Object[]> ids, Map<Chave, Delta> totais) {}
+
+    private record Delta(int agendadas, int canceladas, int canceladasComMotivo) {
+        Delta somar(Delta outro) {
+            return new Delta(agendadas + outro.agendadas, canceladas + outro.canceladas,
+                    canceladasComMotivo + outro.canceladasComMotivo);
+        }
+    }
+}
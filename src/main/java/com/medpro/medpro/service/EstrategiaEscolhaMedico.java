@@ -0,0 +1,13 @@
+package com.medpro.medpro.service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Define como um médico livre é escolhido entre os médicos ativos de uma especialidade.
+ * A implementação ativa é selecionada pela propriedade {@code medpro.agendamento.estrategia-medico}.
+ */
+public interface EstrategiaEscolhaMedico {
+
+    Optional<Long> escolher(long[] candidatos, LocalDateTime dataHora);
+}
@@ -0,0 +1,82 @@
+package com.medpro.medpro.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medpro.medpro.enums.Especialidade;
+import com.medpro.medpro.model.dto.DadosListagemConsulta;
+import com.medpro.medpro.repository.ConsultaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+
+/**
+ * Exportação de consultas por período direto para a resposta HTTP, em NDJSON ou CSV.
+ * As linhas vêm de um {@link java.util.stream.Stream} do repositório e são escritas uma a uma,
+ * então a memória usada não depende do tamanho do resultado.
+ */
+@Service
+public class ExportacaoConsultas {
+
+    private static final String CABECALHO_CSV = "id,medicoId,nomeMedico,pacienteId,nomePaciente,dataHora,situacao";
+
+    private final ConsultaRepository consultaRepo;
+    private final ObjectMapper mapper;
+
+    public ExportacaoConsultas(ConsultaRepository consultaRepo, ObjectMapper mapper) {
+        this.consultaRepo = consultaRepo;
+        this.mapper = mapper;
+    }
+
+    // Período inclusivo [de, ate]
+    @Transactional(readOnly = true)
+    public void exportar(LocalDate de, LocalDate ate, String situacao, Especialidade especialidade, boolean csv,
+            OutputStream saida) throws IOException {
+        try (var linhas = consultaRepo.exportar(de.atStartOfDay(), ate.plusDays(1).atStartOfDay(), situacao, especialidade)) {
+            if (csv) {
+                escreverCsv(linhas.iterator(), saida);
+            } else {
+                escreverNdjson(linhas.iterator(), saida);
+            }
+        }
+    }
+
+    private void escreverNdjson(Iterator<DadosListagemConsulta> linhas, OutputStream saida) throws IOException {
+        var escritor = mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).withRootValueSeparator("\n");
+        try (var sequencia = escritor.writeValues(saida)) {
+            while (linhas.hasNext()) {
+                sequencia.write(linhas.next());
+            }
+        }
+    }
+
+    private void escreverCsv(Iterator<DadosListagemConsulta> linhas, OutputStream saida) throws IOException {
+        var escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        escritor.write(CABECALHO_CSV);
+        escritor.newLine();
+        while (linhas.hasNext()) {
+            var c = linhas.next();
+            escritor.write(c.id() + "," + c.medicoId() + "," + campo(c.nomeMedico()) + "," + c.pacienteId() + ","
+                    + campo(c.nomePaciente()) + "," + c.dataHora() + "," + c.situacao());
+            escritor.newLine();
+        }
+        escritor.flush();
+    }
+
+    // Aspas apenas quando o nome tem vírgula, aspas ou quebra de linha
+    private static String campo(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
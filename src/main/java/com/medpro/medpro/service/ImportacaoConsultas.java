@@ -0,0 +1,248 @@
+package com.medpro.medpro.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medpro.medpro.enums.Especialidade;
+import com.medpro.medpro.model.dto.DadosAgendamentoConsulta;
+import com.medpro.medpro.model.dto.DadosOcupacaoConsulta;
+import com.medpro.medpro.model.dto.DadosRejeicaoImportacao;
+import com.medpro.medpro.model.dto.DadosResultadoImportacao;
+import com.medpro.medpro.model.dto.DadosSituacaoCadastro;
+import com.medpro.medpro.repository.MedicoRepository;
+import com.medpro.medpro.repository.PacienteRepository;
+import com.medpro.medpro.service.regras.ContextoAgendamento;
+import com.medpro.medpro.service.regras.FonteCadastros;
+import com.medpro.medpro.service.regras.MotivoRejeicao;
+import com.medpro.medpro.service.regras.MotorRegrasAgendamento;
+import com.medpro.medpro.service.regras.SituacaoCadastros;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em lote da agenda de uma clínica parceira (NDJSON ou CSV).
+ * <p>
+ * O corpo é lido linha a linha, em lotes de {@value #TAMANHO_LOTE}. Cada lote resolve pacientes e médicos
+ * com uma consulta por lote, passa cada linha pelo {@link MotorRegrasAgendamento} (o mesmo do agendamento),
+ * reserva os horários aceitos no {@link OcupacaoAgenda} e grava tudo com um único batch JDBC. Se o banco recusar o lote (chave única
+ * de horário), o lote devolve só as próprias reservas e é refeito linha a linha para apontar exatamente quais
+ * linhas conflitam.
+ */
+@Service
+public class ImportacaoConsultas {
+
+    public static final String CABECALHO_CSV = "pacienteId,medicoId,especialidade,dataHora,motivoConsulta";
+
+    static final int TAMANHO_LOTE = 1_000;
+
+    private static final String INSERT = """
+            insert into consultas (medico_id, paciente_id, data_hora, motivo, situacao, criado_em)
+            values (?, ?, ?, ?, 'AGENDADA', ?)
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transacao;
+    private final ObjectMapper mapper;
+    private final PacienteRepository pacienteRepo;
+    private final MedicoRepository medicoRepo;
+    private final OcupacaoAgenda ocupacao;
+    private final SeletorMedico seletorMedico;
+    private final MotorRegrasAgendamento regras;
+    private final EstatisticasAgenda estatisticas;
+    private final AgendaMedico agenda;
+
+    public ImportacaoConsultas(JdbcTemplate jdbc, TransactionTemplate transacao, ObjectMapper mapper,
+            PacienteRepository pacienteRepo, MedicoRepository medicoRepo, OcupacaoAgenda ocupacao,
+            SeletorMedico seletorMedico, MotorRegrasAgendamento regras, EstatisticasAgenda estatisticas,
+            AgendaMedico agenda) {
+        this.jdbc = jdbc;
+        this.transacao = transacao;
+        this.mapper = mapper;
+        this.pacienteRepo = pacienteRepo;
+        this.medicoRepo = medicoRepo;
+        this.ocupacao = ocupacao;
+        this.seletorMedico = seletorMedico;
+        this.regras = regras;
+        this.estatisticas = estatisticas;
+        this.agenda = agenda;
+    }
+
+    public DadosResultadoImportacao importar(InputStream corpo, boolean csv) {
+        var resultado = new Resultado();
+        var lote = new ArrayList<Linha>(TAMANHO_LOTE);
+        try (var leitor = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8))) {
+            long numero = 0;
+            String texto;
+            while ((texto = leitor.readLine()) != null) {
+                numero++;
+                if (texto.isBlank() || (csv && numero == 1 && texto.strip().equals(CABECALHO_CSV))) {
+                    continue;
+                }
+                resultado.recebidas++;
+                try {
+                    lote.add(new Linha(numero, csv ? lerCsv(texto) : mapper.readValue(texto, DadosAgendamentoConsulta.class)));
+                } catch (IOException | RuntimeException e) {
+                    resultado.rejeitar(numero, "Linha com formato inválido.");
+                }
+                if (lote.size() == TAMANHO_LOTE) {
+                    gravar(lote, resultado);
+                    lote.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!lote.isEmpty()) {
+            gravar(lote, resultado);
+        }
+        return new DadosResultadoImportacao(resultado.recebidas, resultado.importadas, resultado.rejeitadas);
+    }
+
+    private void gravar(List<Linha> lote, Resultado resultado) {
+        var reservas = new ArrayList<DadosOcupacaoConsulta>(lote.size());
+        try {
+            var parcial = new Resultado();
+            transacao.executeWithoutResult(status -> validarEInserir(lote, parcial, reservas));
+            resultado.somar(parcial);
+        } catch (DataIntegrityViolationException e) {
+            // Volta só o que o lote reservou; o que já está gravado para os mesmos médicos e pacientes (inclusive
+            // a consulta que bateu na chave única) continua marcado
+            ocupacao.devolver(reservas);
+            if (lote.size() == 1) {
+                resultado.rejeitar(lote.get(0).numero(), motivoConflito(e));
+                return;
+            }
+            // Lote recusado pelo banco: refaz linha a linha para isolar os conflitos
+            for (var linha : lote) {
+                gravar(List.of(linha), resultado);
+            }
+        } catch (RuntimeException e) {
+            reservas.forEach(r -> ocupacao.desfazerReserva(r.medicoId(), r.pacienteId(), r.dataHora()));
+            throw e;
+        }
+    }
+
+    private void validarEInserir(List<Linha> lote, Resultado resultado, List<DadosOcupacaoConsulta> reservas) {
+        var pacientes = situacao(pacienteRepo.listarSituacao(
+                lote.stream().map(l -> l.dados().pacienteId()).filter(Objects::nonNull).collect(Collectors.toSet())));
+        var medicos = situacao(medicoRepo.listarSituacao(
+                lote.stream().map(l -> l.dados().medicoId()).filter(Objects::nonNull).collect(Collectors.toSet())));
+
+        // Os validadores de banco leem dos mapas do lote, sem nova ida ao banco por linha
+        FonteCadastros fonte = (pacienteId, medicoId) ->
+                new SituacaoCadastros(pacientes.get(pacienteId), medicoId != null ? medicos.get(medicoId) : null, null);
+
+        var agora = LocalDateTime.now();
+        var valores = new ArrayList<Object[]>(lote.size());
+        for (var linha : lote) {
+            var dados = linha.dados();
+            if (dados.pacienteId() == null || dados.dataHora() == null) {
+                resultado.rejeitar(linha.numero(), MotivoRejeicao.CAMPOS_OBRIGATORIOS.mensagem());
+                continue;
+            }
+            var motivo = regras.validar(new ContextoAgendamento(dados.pacienteId(), dados.medicoId(), dados.dataHora(),
+                    dados.especialidade(), agora, fonte));
+            if (motivo != null) {
+                resultado.rejeitar(linha.numero(), motivo.mensagem());
+                continue;
+            }
+            // consultas não tem FK (particionada): o batch só grava ids presentes nos mapas do lote, seja qual
+            // for o conjunto de validadores. O médico escolhido pelo SeletorMedico vem do índice carregado do banco.
+            motivo = existencia(pacientes, medicos, dados.pacienteId(), dados.medicoId());
+            if (motivo != null) {
+                resultado.rejeitar(linha.numero(), motivo.mensagem());
+                continue;
+            }
+            var medicoId = dados.medicoId();
+            if (medicoId == null) {
+                var livre = seletorMedico.escolherIdMedicoLivre(dados.especialidade(), dados.dataHora());
+                if (livre.isEmpty()) {
+                    resultado.rejeitar(linha.numero(), MotivoRejeicao.SEM_MEDICO_LIVRE.mensagem());
+                    continue;
+                }
+                medicoId = livre.get();
+            }
+            // Teste e marcação atômicos: uma linha anterior do lote ou um agendamento concorrente já no índice recusa
+            motivo = ocupacao.reservar(medicoId, dados.pacienteId(), dados.dataHora());
+            if (motivo != null) {
+                resultado.rejeitar(linha.numero(), motivo.mensagem());
+                continue;
+            }
+            reservas.add(new DadosOcupacaoConsulta(medicoId, dados.pacienteId(), dados.dataHora()));
+            estatisticas.agendada(medicoId, dados.dataHora());
+            agenda.alterada(medicoId, dados.dataHora());
+            valores.add(new Object[] { medicoId, dados.pacienteId(), dados.dataHora(), dados.motivoConsulta(), agora });
+        }
+        if (!valores.isEmpty()) {
+            jdbc.batchUpdate(INSERT, valores);
+        }
+        resultado.importadas += valores.size();
+    }
+
+    // Colunas na ordem de CABECALHO_CSV; o motivo é a última coluna e pode conter vírgulas
+    private static DadosAgendamentoConsulta lerCsv(String texto) {
+        var campos = texto.split(",", 5);
+        return new DadosAgendamentoConsulta(
+                campos.length > 1 && !campos[1].isBlank() ? Long.valueOf(campos[1].trim()) : null,
+                campos[0].isBlank() ? null : Long.valueOf(campos[0].trim()),
+                campos.length > 3 && !campos[3].isBlank() ? LocalDateTime.parse(campos[3].trim()) : null,
+                campos.length > 2 && !campos[2].isBlank() ? Especialidade.valueOf(campos[2].trim()) : null,
+                campos.length > 4 && !campos[4].isBlank() ? campos[4].trim() : null);
+    }
+
+    private static Map<Long, Boolean> situacao(List<DadosSituacaoCadastro> cadastros) {
+        return cadastros.stream().collect(Collectors.toMap(DadosSituacaoCadastro::id, DadosSituacaoCadastro::ativo));
+    }
+
+    static MotivoRejeicao existencia(Map<Long, Boolean> pacientes, Map<Long, Boolean> medicos, Long pacienteId,
+            Long medicoId) {
+        if (!pacientes.containsKey(pacienteId)) {
+            return MotivoRejeicao.PACIENTE_NAO_ENCONTRADO;
+        }
+        if (medicoId != null && !medicos.containsKey(medicoId)) {
+            return MotivoRejeicao.MEDICO_NAO_ENCONTRADO;
+        }
+        return null;
+    }
+
+    static String motivoConflito(DataIntegrityViolationException e) {
+        var mensagem = String.valueOf(e.getMostSpecificCause().getMessage());
+        if (mensagem.contains("uk_consultas_paciente_dia_ativa")) {
+            return MotivoRejeicao.PACIENTE_MESMO_DIA.mensagem();
+        }
+        if (mensagem.contains("uk_consultas_medico_horario_ativa")) {
+            return MotivoRejeicao.MEDICO_OCUPADO.mensagem();
+        }
+        return "Registro recusado pelo banco de dados.";
+    }
+
+    private record Linha(long numero, DadosAgendamentoConsulta dados) {}
+
+    private static class Resultado {
+        private long recebidas;
+        private long importadas;
+        private final List<DadosRejeicaoImportacao> rejeitadas = new ArrayList<>();
+
+        void rejeitar(long linha, String motivo) {
+            rejeitadas.add(new DadosRejeicaoImportacao(linha, motivo));
+        }
+
+        void somar(Resultado outro) {
+            importadas += outro.importadas;
+            rejeitadas.addAll(outro.rejeitadas);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.medpro.medpro.service;
+
+import com.medpro.medpro.enums.SituacaoLembrete;
+import com.medpro.medpro.model.dto.DadosLembreteConsulta;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lembretes de consulta para os pacientes, por uma caixa de saída ({@code lembretes_consulta}).
+ * <p>
+ * A varredura lê as próximas 24h de {@code consultas} numa única consulta por intervalo (no máximo duas
+ * partições, em {@code idx_consultas_data_hora}) e grava, em lotes, um lembrete para cada consulta agendada
+ * que ainda não tem.
+ * O envio reserva lotes de lembretes vencidos ({@code skip locked}, reserva de alguns minutos), entrega
+ * em paralelo pelo {@link EnvioLembrete} ativo, fora de transação, e grava os resultados em lote.
+ * Falhas voltam com espera crescente até {@code medpro.lembretes.tentativas}; lembretes de consultas
+ * canceladas, reagendadas ou já passadas são descartados.
+ */
+@Service
+public class LembretesConsulta {
+
+    public static final String LEMBRETES = "medpro.lembretes";
+
+    static final Duration JANELA = Duration.ofHours(24);
+
+    // Um lote reservado sai da fila por esse tempo; se o processo cair durante o envio, volta depois disso
+    private static final Duration RESERVA = Duration.ofMinutes(5);
+    private static final Duration ESPERA_INICIAL = Duration.ofMinutes(1);
+    private static final int LOTE_LIMPEZA = 5000;
+    private static final int TAMANHO_MAXIMO_ERRO = 255;
+
+    // Leitura consistente (sem travas em consultas); o filtro por dia restringe as partições lidas
+    private static final String SELECT_SEM_LEMBRETE = """
+            select c.id, c.paciente_id, c.medico_id, c.data_hora
+            from consultas c
+            left join lembretes_consulta l on l.consulta_id = c.id and l.data_hora_consulta = c.data_hora
+            where c.dia between ? and ?
+            and c.data_hora >= ? and c.data_hora < ?
+            and c.situacao = 'AGENDADA'
+            and l.id is null
+            """;
+
+    private static final String INSERT_LEMBRETE = """
+            insert ignore into lembretes_consulta (consulta_id, paciente_id, medico_id, data_hora_consulta, situacao,
+                                                   tentativas, proxima_tentativa, criado_em)
+            values (?, ?, ?, ?, 'PENDENTE', 0, ?, ?)
+            """;
+
+    private static final String SELECT_VENCIDOS = """
+            select l.id, l.consulta_id, l.paciente_id, l.medico_id, l.data_hora_consulta, l.tentativas
+            from lembretes_consulta l
+            where l.situacao = 'PENDENTE'
+            and l.proxima_tentativa <= ?
+            order by l.proxima_tentativa, l.id
+            limit ?
+            for update skip locked
+            """;
+
+    private static final String SELECT_VIGENTES = """
+            select c.id, c.data_hora from consultas c
+            where c.dia between ? and ?
+            and c.situacao = 'AGENDADA'
+            and c.id in (%s)
+            """;
+
+    private static final String UPDATE_RESERVA = "update lembretes_consulta set proxima_tentativa = ? where id = ?";
+
+    private static final String UPDATE_ENVIADO = """
+            update lembretes_consulta set situacao = 'ENVIADO', tentativas = ?, enviado_em = ?, erro = null
+            where id = ?
+            """;
+
+    private static final String UPDATE_FALHA = """
+            update lembretes_consulta set situacao = ?, tentativas = ?, proxima_tentativa = ?, erro = ?
+            where id = ?
+            """;
+
+    private static final String UPDATE_DESCARTADO = "update lembretes_consulta set situacao = 'DESCARTADO' where id = ?";
+
+    private static final String DELETE_ANTIGOS = "delete from lembretes_consulta where data_hora_consulta < ? limit ?";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transacao;
+    private final DetalhamentoCadastros detalhamento;
+    private final EnvioLembrete envio;
+    private final MeterRegistry registry;
+    private final ExecutorService executor;
+    private final int tamanhoLote;
+    private final int maximoTentativas;
+    private final Duration tempoLote;
+    private final int retencaoDias;
+
+    public LembretesConsulta(JdbcTemplate jdbc, TransactionTemplate transacao, DetalhamentoCadastros detalhamento,
+            EnvioLembrete envio, MeterRegistry registry,
+            @Value("${medpro.lembretes.lote:200}") int tamanhoLote,
+            @Value("${medpro.lembretes.paralelismo:8}") int paralelismo,
+            @Value("${medpro.lembretes.tentativas:5}") int maximoTentativas,
+            @Value("${medpro.lembretes.tempo-lote:60s}") Duration tempoLote,
+            @Value("${medpro.lembretes.retencao-dias:30}") int retencaoDias) {
+        this.jdbc = jdbc;
+        this.transacao = transacao;
+        this.detalhamento = detalhamento;
+        this.envio = envio;
+        this.registry = registry;
+        this.executor = Executors.newFixedThreadPool(paralelismo, Thread.ofPlatform().name("lembrete-", 1).factory());
+        this.tamanhoLote = tamanhoLote;
+        this.maximoTentativas = maximoTentativas;
+        this.tempoLote = tempoLote;
+        this.retencaoDias = retencaoDias;
+    }
+
+    @Scheduled(fixedDelayString = "${medpro.lembretes.varredura:300000}")
+    public void gerar() {
+        var agora = LocalDateTime.now();
+        gerar(agora, agora.plus(JANELA), agora);
+    }
+
+    // A leitura só traz consultas ainda sem lembrete: depois da primeira varredura, as novas desde a anterior.
+    // Cada lote de inserts é um statement (rewriteBatchedStatements) com commit próprio
+    int gerar(LocalDateTime de, LocalDateTime ate, LocalDateTime agora) {
+        var criadoEm = Timestamp.valueOf(agora);
+        List<Object[]> novos = jdbc.query(SELECT_SEM_LEMBRETE, (rs, linha) -> new Object[] {
+                rs.getLong("id"), rs.getLong("paciente_id"), rs.getLong("medico_id"), rs.getTimestamp("data_hora"),
+                criadoEm, criadoEm },
+                Date.valueOf(de.toLocalDate()), Date.valueOf(ate.toLocalDate()), de, ate);
+        for (int i = 0; i < novos.size(); i += tamanhoLote) {
+            jdbc.batchUpdate(INSERT_LEMBRETE, novos.subList(i, Math.min(i + tamanhoLote, novos.size())));
+        }
+        return novos.size();
+    }
+
+    @Scheduled(fixedDelayString = "${medpro.lembretes.intervalo:5000}")
+    public void enviarPendentes() {
+        int reservados;
+        do {
+            reservados = enviarLote(LocalDateTime.now());
+        } while (reservados == tamanhoLote);
+    }
+
+    int enviarLote(LocalDateTime agora) {
+        var lote = reservar(agora);
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        var vigentes = vigentes(lote);
+        var enviaveis = new ArrayList<Reservado>(lote.size());
+        var descartados = new ArrayList<Reservado>();
+        for (var lembrete : lote) {
+            if (lembrete.dataHora().isAfter(agora) && lembrete.dataHora().equals(vigentes.get(lembrete.consultaId()))) {
+                enviaveis.add(lembrete);
+            } else {
+                descartados.add(lembrete);
+            }
+        }
+        gravarResultados(enviaveis, entregar(enviaveis), descartados, agora);
+        return lote.size();
+    }
+
+    @Scheduled(cron = "0 15 4 * * *")
+    public void limpar() {
+        var limite = LocalDateTime.now().minusDays(retencaoDias);
+        int removidos;
+        do {
+            removidos = jdbc.update(DELETE_ANTIGOS, limite, LOTE_LIMPEZA);
+        } while (removidos == LOTE_LIMPEZA);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    // Transação curta: só seleciona e adia a próxima tentativa; o envio acontece depois, sem travas
+    private List<Reservado> reservar(LocalDateTime agora) {
+        return transacao.execute(status -> {
+            var lote = jdbc.query(SELECT_VENCIDOS, (rs, linha) -> new Reservado(rs.getLong("id"), rs.getLong("consulta_id"),
+                    rs.getLong("paciente_id"), rs.getLong("medico_id"), rs.getTimestamp("data_hora_consulta").toLocalDateTime(),
+                    rs.getInt("tentativas")), agora, tamanhoLote);
+            var reservaAte = Timestamp.valueOf(agora.plus(RESERVA));
+            jdbc.batchUpdate(UPDATE_RESERVA, lote, lote.size(), (ps, lembrete) -> {
+                ps.setTimestamp(1, reservaAte);
+                ps.setLong(2, lembrete.id());
+            });
+            return lote;
+        });
+    }
+
+    // Horário atual das consultas do lote que continuam agendadas
+    private Map<Long, LocalDateTime> vigentes(List<Reservado> lote) {
+        var ids = lote.stream().map(Reservado::consultaId).distinct().toList();
+        var dias = lote.stream().map(lembrete -> lembrete.dataHora().toLocalDate()).sorted().toList();
+        var parametros = new ArrayList<Object>(ids.size() + 2);
+        parametros.add(Date.valueOf(dias.getFirst()));
+        parametros.add(Date.valueOf(dias.getLast()));
+        parametros.addAll(ids);
+        var vigentes = new HashMap<Long, LocalDateTime>();
+        jdbc.query(SELECT_VIGENTES.formatted(String.join(",", Collections.nCopies(ids.size(), "?"))),
+                rs -> { vigentes.put(rs.getLong("id"), rs.getTimestamp("data_hora").toLocalDateTime()); },
+                parametros.toArray());
+        return vigentes;
+    }
+
+    // Envia em paralelo (até medpro.lembretes.paralelismo por vez); devolve o erro de cada lembrete que falhou
+    private Map<Long, String> entregar(List<Reservado> lembretes) {
+        var tarefas = new ArrayList<Callable<Void>>(lembretes.size());
+        for (var lembrete : lembretes) {
+            tarefas.add(() -> {
+                envio.enviar(new DadosLembreteConsulta(lembrete.id(), lembrete.consultaId(), lembrete.dataHora(),
+                        detalhamento.paciente(lembrete.pacienteId()), detalhamento.medico(lembrete.medicoId())));
+                return null;
+            });
+        }
+        var falhas = new HashMap<Long, String>();
+        try {
+            var resultados = executor.invokeAll(tarefas, tempoLote.toMillis(), TimeUnit.MILLISECONDS);
+            for (int i = 0; i < resultados.size(); i++) {
+                try {
+                    resultados.get(i).get();
+                } catch (CancellationException e) {
+                    falhas.put(lembretes.get(i).id(), "Tempo de envio esgotado");
+                } catch (ExecutionException e) {
+                    falhas.put(lembretes.get(i).id(), String.valueOf(e.getCause()));
+                }
+            }
+        } catch (InterruptedException e) {
+            // Desligamento: o lote continua reservado e volta para a fila ao fim da reserva
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Envio de lembretes interrompido", e);
+        }
+        return falhas;
+    }
+
+    private void gravarResultados(List<Reservado> enviaveis, Map<Long, String> falhas, List<Reservado> descartados,
+            LocalDateTime agora) {
+        var enviados = new ArrayList<Object[]>(enviaveis.size());
+        var reprogramados = new ArrayList<Object[]>();
+        int esgotados = 0;
+        for (var lembrete : enviaveis) {
+            var tentativas = lembrete.tentativas() + 1;
+            var erro = falhas.get(lembrete.id());
+            if (erro == null) {
+                enviados.add(new Object[] { tentativas, Timestamp.valueOf(agora), lembrete.id() });
+                continue;
+            }
+            var esgotado = tentativas >= maximoTentativas;
+            esgotados += esgotado ? 1 : 0;
+            // Espera dobra a cada tentativa: 1, 2, 4, 8... minutos
+            var proxima = agora.plus(ESPERA_INICIAL.multipliedBy(1L << Math.min(tentativas - 1, 10)));
+            reprogramados.add(new Object[] {
+                    (esgotado ? SituacaoLembrete.FALHOU : SituacaoLembrete.PENDENTE).name(), tentativas,
+                    Timestamp.valueOf(proxima), erro.length() > TAMANHO_MAXIMO_ERRO ? erro.substring(0, TAMANHO_MAXIMO_ERRO) : erro,
+                    lembrete.id() });
+        }
+        List<Object[]> descartes = descartados.stream().map(lembrete -> new Object[] { lembrete.id() }).toList();
+        transacao.executeWithoutResult(status -> {
+            jdbc.batchUpdate(UPDATE_ENVIADO, enviados);
+            jdbc.batchUpdate(UPDATE_FALHA, reprogramados);
+            jdbc.batchUpdate(UPDATE_DESCARTADO, descartes);
+        });
+
+        registry.counter(LEMBRETES, "resultado", "enviado").increment(enviados.size());
+        registry.counter(LEMBRETES, "resultado", "reprogramado").increment(reprogramados.size() - esgotados);
+        registry.counter(LEMBRETES, "resultado", "falhou").increment(esgotados);
+        registry.counter(LEMBRETES, "resultado", "descartado").increment(descartes.size());
+    }
+
+    private record Reservado(Long id, Long consultaId, Long pacienteId, Long medicoId, LocalDateTime dataHora, int tentativas) {}
+}
@@ -0,0 +1,277 @@
+package com.medpro.medpro.service;
+
+import com.medpro.medpro.model.dto.DadosOcupacaoConsulta;
+import com.medpro.medpro.repository.ConsultaRepository;
+import com.medpro.medpro.service.regras.MotivoRejeicao;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice em memória da ocupação da agenda, por médico e por paciente em cada dia de funcionamento.
+ * <p>
+ * Cada dia é representado por uma máscara de 12 bits, um bit por horário de início (07:00 a 18:00).
+ * O índice só evita consultas ao banco nas validações do agendamento; quem garante a regra são as chaves
+ * únicas de consultas ativas (V7). Quando o índice não sabe responder (carga inicial em andamento ou horário
+ * quebrado), a verificação passa e o conflito, se houver, é barrado na gravação.
+ * <p>
+ * Quem grava depois da validação (fila assíncrona, importação) reserva o horário com teste e marcação
+ * atômicos e só devolve o que a própria reserva marcou. Um bit confirmado por consulta gravada nunca é
+ * limpo por uma reserva recusada: a recusa pela chave única prova que a consulta existe.
+ * <p>
+ * A carga roda antes de o servidor web aceitar requisições: um cancelamento aplicado durante a carga seria
+ * sobrescrito pela leitura feita antes dele, deixando o horário ocupado no índice.
+ */
+@Component
+public class OcupacaoAgenda implements SmartInitializingSingleton {
+
+    public static final int PRIMEIRA_HORA = 7;
+    public static final int ULTIMA_HORA = 18;
+    public static final int HORARIOS_POR_DIA = ULTIMA_HORA - PRIMEIRA_HORA + 1;
+    public static final int TODOS_OS_HORARIOS = (1 << HORARIOS_POR_DIA) - 1;
+
+    // Chave compacta: id nos bits altos, dia (epoch day) nos 17 bits baixos
+    private static final int BITS_DIA = 17;
+    private static final long MASCARA_DIA = (1L << BITS_DIA) - 1;
+
+    private final Map<Long, Integer> ocupacaoMedicos = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> ocupacaoPacientes = new ConcurrentHashMap<>();
+    private final ConsultaRepository consultaRepo;
+
+    private volatile boolean carregado;
+
+    public OcupacaoAgenda(ConsultaRepository consultaRepo) {
+        this.consultaRepo = consultaRepo;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        carregar();
+    }
+
+    public void carregar() {
+        var inicio = LocalDate.now().atStartOfDay();
+        for (DadosOcupacaoConsulta c : consultaRepo.listarOcupacaoAPartirDe(inicio)) {
+            marcar(c.medicoId(), c.pacienteId(), c.dataHora());
+        }
+        carregado = true;
+    }
+
+    // Regra: Médico já possui consulta nessa hora
+    public boolean medicoOcupado(Long medicoId, LocalDateTime dataHora) {
+        // Fora do índice, a chave única uk_consultas_medico_horario_ativa barra a gravação
+        if (!indexado(dataHora)) {
+            return false;
+        }
+        var mascara = ocupacaoMedicos.getOrDefault(chave(medicoId, dataHora.toLocalDate()), 0);
+        return (mascara & bit(dataHora)) != 0;
+    }
+
+    // Regra: Não permitir mais de uma consulta no mesmo dia para o mesmo paciente
+    public boolean pacientePossuiConsultaNoDia(Long pacienteId, LocalDateTime dataHora) {
+        // Antes da carga, a chave única uk_consultas_paciente_dia_ativa barra a gravação
+        if (!carregado) {
+            return false;
+        }
+        return ocupacaoPacientes.getOrDefault(chave(pacienteId, dataHora.toLocalDate()), 0) != 0;
+    }
+
+    /**
+     * Marca o horário como ocupado. Dentro de uma transação, a marcação só é aplicada após o commit.
+     */
+    public void registrar(Long medicoId, Long pacienteId, LocalDateTime dataHora) {
+        Transacoes.aposCommit(() -> marcar(medicoId, pacienteId, dataHora));
+    }
+
+    /**
+     * Reserva o horário se ainda estiver livre: teste e marcação atômicos, então entre reservas concorrentes
+     * do mesmo horário do médico (ou do mesmo dia do paciente) só uma passa. Devolve {@code null} se reservou
+     * ou o motivo da recusa, sem alterar o índice. Usado quando a consulta é gravada depois (fila assíncrona,
+     * lote de importação); a reserva que não virar consulta volta por {@link #devolver} ou {@link #desfazerReserva}.
+     */
+    public MotivoRejeicao reservar(Long medicoId, Long pacienteId, LocalDateTime dataHora) {
+        var bit = bit(dataHora);
+        if (bit == 0) {
+            return null;
+        }
+        var dia = dataHora.toLocalDate();
+        var cheio = horarioCheio(dataHora);
+        if (cheio && !marcarSeLivre(ocupacaoMedicos, chave(medicoId, dia), bit, bit)) {
+            return MotivoRejeicao.MEDICO_OCUPADO;
+        }
+        if (!marcarSeLivre(ocupacaoPacientes, chave(pacienteId, dia), TODOS_OS_HORARIOS, bit)) {
+            if (cheio) {
+                ocupacaoMedicos.computeIfPresent(chave(medicoId, dia), (k, atual) -> semBit(atual, bit, 0));
+            }
+            return MotivoRejeicao.PACIENTE_MESMO_DIA;
+        }
+        return null;
+    }
+
+    /**
+     * Devolve reservas que não viraram consulta (recusa por regra de banco ou por chave única, lote desfeito).
+     * <p>
+     * A reserva pode dividir o bit com uma consulta gravada fora dela: um agendamento síncrono que só marca o
+     * índice após o commit, ou a consulta que fez o banco recusar a reserva pela chave única. Por isso, numa
+     * única consulta, lê o que está gravado para os mesmos médicos e pacientes naqueles dias e troca os bits
+     * das reservas pelos gravados, atomicamente por chave do índice.
+     */
+    public void devolver(List<DadosOcupacaoConsulta> reservas) {
+        if (reservas.isEmpty()) {
+            return;
+        }
+        var medicos = new HashSet<Long>();
+        var pacientes = new HashSet<Long>();
+        var primeiroDia = LocalDate.MAX;
+        var ultimoDia = LocalDate.MIN;
+        for (var reserva : reservas) {
+            medicos.add(reserva.medicoId());
+            pacientes.add(reserva.pacienteId());
+            var dia = reserva.dataHora().toLocalDate();
+            primeiroDia = dia.isBefore(primeiroDia) ? dia : primeiroDia;
+            ultimoDia = dia.isAfter(ultimoDia) ? dia : ultimoDia;
+        }
+        var gravadosMedicos = new HashMap<Long, Integer>();
+        var gravadosPacientes = new HashMap<Long, Integer>();
+        for (var c : consultaRepo.listarOcupacaoDe(medicos, pacientes, primeiroDia.atStartOfDay(),
+                ultimoDia.plusDays(1).atStartOfDay())) {
+            marcar(gravadosMedicos, gravadosPacientes, c.medicoId(), c.pacienteId(), c.dataHora());
+        }
+
+        for (var reserva : reservas) {
+            var bit = bit(reserva.dataHora());
+            if (bit == 0) {
+                continue;
+            }
+            var dia = reserva.dataHora().toLocalDate();
+            if (horarioCheio(reserva.dataHora())) {
+                var gravados = gravadosMedicos.getOrDefault(chave(reserva.medicoId(), dia), 0);
+                ocupacaoMedicos.compute(chave(reserva.medicoId(), dia), (k, atual) -> semBit(atual, bit, gravados));
+            }
+            var gravados = gravadosPacientes.getOrDefault(chave(reserva.pacienteId(), dia), 0);
+            ocupacaoPacientes.compute(chave(reserva.pacienteId(), dia), (k, atual) -> semBit(atual, bit, gravados));
+        }
+    }
+
+    /**
+     * Desfaz na hora uma reserva sem conferir o banco: só quando a gravação nem chegou a ser tentada
+     * (fila cheia) ou o banco não responde.
+     */
+    public void desfazerReserva(Long medicoId, Long pacienteId, LocalDateTime dataHora) {
+        desmarcar(medicoId, pacienteId, dataHora);
+    }
+
+    /**
+     * Libera o horário. Dentro de uma transação, a liberação só é aplicada após o commit.
+     */
+    public void liberar(Long medicoId, Long pacienteId, LocalDateTime dataHora) {
+        Transacoes.aposCommit(() -> desmarcar(medicoId, pacienteId, dataHora));
+    }
+
+    /**
+     * Indica se o índice pode responder pelo horário sem ir ao banco.
+     */
+    public boolean indexado(LocalDateTime dataHora) {
+        return carregado && horarioCheio(dataHora);
+    }
+
+    public boolean carregado() {
+        return carregado;
+    }
+
+    // Máscara dos horários cheios ocupados do médico no dia (bit 0 = 07:00 ... bit 11 = 18:00)
+    public int horariosOcupadosDoMedico(Long medicoId, LocalDate dia) {
+        return ocupacaoMedicos.getOrDefault(chave(medicoId, dia), 0);
+    }
+
+    // Quantidade de consultas do médico no dia (usada para distribuir carga entre médicos)
+    public int cargaDoMedicoNoDia(Long medicoId, LocalDate dia) {
+        return Integer.bitCount(ocupacaoMedicos.getOrDefault(chave(medicoId, dia), 0));
+    }
+
+    // Dias que já passaram não recebem novos agendamentos
+    @Scheduled(cron = "0 0 3 * * *")
+    public void descartarDiasPassados() {
+        var hoje = LocalDate.now().toEpochDay();
+        ocupacaoMedicos.keySet().removeIf(chave -> (chave & MASCARA_DIA) < hoje);
+        ocupacaoPacientes.keySet().removeIf(chave -> (chave & MASCARA_DIA) < hoje);
+    }
+
+    private void marcar(Long medicoId, Long pacienteId, LocalDateTime dataHora) {
+        marcar(ocupacaoMedicos, ocupacaoPacientes, medicoId, pacienteId, dataHora);
+    }
+
+    private static void marcar(Map<Long, Integer> medicos, Map<Long, Integer> pacientes, Long medicoId, Long pacienteId,
+            LocalDateTime dataHora) {
+        var bit = bit(dataHora);
+        if (bit == 0) {
+            return;
+        }
+        var dia = dataHora.toLocalDate();
+        if (horarioCheio(dataHora)) {
+            medicos.merge(chave(medicoId, dia), bit, (atual, novo) -> atual | novo);
+        }
+        pacientes.merge(chave(pacienteId, dia), bit, (atual, novo) -> atual | novo);
+    }
+
+    private void desmarcar(Long medicoId, Long pacienteId, LocalDateTime dataHora) {
+        var bit = bit(dataHora);
+        if (bit == 0) {
+            return;
+        }
+        var dia = dataHora.toLocalDate();
+        if (horarioCheio(dataHora)) {
+            ocupacaoMedicos.computeIfPresent(chave(medicoId, dia), (k, atual) -> semBit(atual, bit, 0));
+        }
+        ocupacaoPacientes.computeIfPresent(chave(pacienteId, dia), (k, atual) -> semBit(atual, bit, 0));
+    }
+
+    // Marca o bit só se nenhum bit de conflito estiver marcado; false se já estava ocupado
+    private static boolean marcarSeLivre(Map<Long, Integer> mapa, long chave, int conflito, int bit) {
+        while (true) {
+            var atual = mapa.get(chave);
+            if (atual == null) {
+                if (mapa.putIfAbsent(chave, bit) == null) {
+                    return true;
+                }
+            } else if ((atual & conflito) != 0) {
+                return false;
+            } else if (mapa.replace(chave, atual, atual | bit)) {
+                return true;
+            }
+        }
+    }
+
+    // Máscara sem o bit, mais os bits a manter; null remove a chave do mapa
+    private static Integer semBit(Integer atual, int bit, int manter) {
+        var mascara = ((atual == null ? 0 : atual) & ~bit) | manter;
+        return mascara == 0 ? null : mascara;
+    }
+
+    static long chave(Long id, LocalDate dia) {
+        return (id << BITS_DIA) | dia.toEpochDay();
+    }
+
+    // Bit do horário de início (07:00 -> bit 0 ... 18:00 -> bit 11); 0 se fora do funcionamento
+    public static int bit(LocalDateTime dataHora) {
+        var hora = dataHora.getHour();
+        if (hora < PRIMEIRA_HORA || hora > ULTIMA_HORA || dataHora.toLocalTime().isAfter(LocalTime.of(ULTIMA_HORA, 0))) {
+            return 0;
+        }
+        return 1 << (hora - PRIMEIRA_HORA);
+    }
+
+    // Colisão de médico é por horário exato; horários quebrados (ex.: 07:30) são conferidos no banco
+    private static boolean horarioCheio(LocalDateTime dataHora) {
+        return dataHora.getMinute() == 0 && dataHora.getSecond() == 0 && dataHora.getNano() == 0;
+    }
+}
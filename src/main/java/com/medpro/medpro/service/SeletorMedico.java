@@ -0,0 +1,107 @@
+package com.medpro.medpro.service;
+
+import com.medpro.medpro.enums.Especialidade;
+import com.medpro.medpro.model.dto.DadosMedicoAtivo;
+import com.medpro.medpro.model.entity.Medico;
+import com.medpro.medpro.repository.MedicoRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Mantém em memória os médicos ativos de cada especialidade e escolhe um médico livre
+ * usando a {@link EstrategiaEscolhaMedico} configurada e o índice de {@link OcupacaoAgenda}.
+ * <p>
+ * Os vetores de ids são substituídos por inteiro a cada cadastro ou exclusão (eventos raros),
+ * então a escolha lê sempre um vetor imutável, sem travas. A carga roda antes de o servidor web aceitar
+ * requisições e soma os médicos lidos aos já presentes, sem descartar um cadastro feito nesse meio tempo.
+ */
+@Component
+public class SeletorMedico implements SmartInitializingSingleton {
+
+    private static final long[] NENHUM = new long[0];
+
+    private final Map<Especialidade, long[]> ativos = new ConcurrentHashMap<>();
+    private final MedicoRepository medicoRepo;
+    private final OcupacaoAgenda ocupacao;
+    private final EstrategiaEscolhaMedico estrategia;
+
+    private volatile boolean carregado;
+
+    public SeletorMedico(MedicoRepository medicoRepo, OcupacaoAgenda ocupacao, EstrategiaEscolhaMedico estrategia) {
+        this.medicoRepo = medicoRepo;
+        this.ocupacao = ocupacao;
+        this.estrategia = estrategia;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        carregar();
+    }
+
+    public void carregar() {
+        var porEspecialidade = medicoRepo.listarAtivosPorEspecialidade().stream()
+                .collect(Collectors.groupingBy(DadosMedicoAtivo::especialidade,
+                        Collectors.mapping(DadosMedicoAtivo::id, Collectors.toList())));
+        porEspecialidade.forEach((especialidade, ids) ->
+                ativos.merge(especialidade, ids.stream().mapToLong(Long::longValue).toArray(), SeletorMedico::unir));
+        carregado = true;
+    }
+
+    // Sem o índice pronto para o horário, a ocupação vem da consulta no banco
+    public Optional<Long> escolherIdMedicoLivre(Especialidade especialidade, LocalDateTime dataHora) {
+        if (!carregado || !ocupacao.indexado(dataHora)) {
+            return medicoRepo.escolherMedicoAleatorioLivreNaData(especialidade, dataHora).map(Medico::getId);
+        }
+        return escolherNoIndice(especialidade, dataHora);
+    }
+
+    private Optional<Long> escolherNoIndice(Especialidade especialidade, LocalDateTime dataHora) {
+        return estrategia.escolher(ativos.getOrDefault(especialidade, NENHUM), dataHora);
+    }
+
+    // Ids dos médicos ativos da especialidade (cópia)
+    public long[] medicosAtivos(Especialidade especialidade) {
+        if (!carregado) {
+            return medicoRepo.listarAtivosPorEspecialidade().stream()
+                    .filter(m -> m.especialidade() == especialidade)
+                    .mapToLong(DadosMedicoAtivo::id)
+                    .toArray();
+        }
+        return ativos.getOrDefault(especialidade, NENHUM).clone();
+    }
+
+    public void adicionar(Medico medico) {
+        var id = medico.getId();
+        var especialidade = medico.getEspecialidade();
+        Transacoes.aposCommit(() -> ativos.compute(especialidade, (esp, atual) -> {
+            if (atual == null) {
+                return new long[] { id };
+            }
+            if (Arrays.stream(atual).anyMatch(m -> m == id)) {
+                return atual;
+            }
+            var novo = Arrays.copyOf(atual, atual.length + 1);
+            novo[atual.length] = id;
+            return novo;
+        }));
+    }
+
+    private static long[] unir(long[] atual, long[] carregados) {
+        return LongStream.concat(Arrays.stream(atual), Arrays.stream(carregados)).distinct().toArray();
+    }
+
+    public void remover(Medico medico) {
+        var id = medico.getId();
+        var especialidade = medico.getEspecialidade();
+        Transacoes.aposCommit(() -> ativos.computeIfPresent(especialidade,
+                (esp, atual) -> Arrays.stream(atual).filter(m -> m != id).toArray()));
+    }
+}
@@ -0,0 +1,32 @@
+package com.medpro.medpro.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Embaralhamento de Fisher-Yates feito sob demanda sobre as posições 0..n-1.
+ * Cada chamada a {@link #proximo()} custa O(1) e não copia o vetor de candidatos:
+ * apenas as trocas já feitas ficam guardadas.
+ */
+final class SorteioSemRepeticao {
+
+    private final Map<Integer, Integer> trocas = new HashMap<>();
+    private int restantes;
+
+    SorteioSemRepeticao(int tamanho) {
+        this.restantes = tamanho;
+    }
+
+    // Próxima posição sorteada, ou -1 quando todas já saíram
+    int proximo() {
+        if (restantes == 0) {
+            return -1;
+        }
+        var sorteada = ThreadLocalRandom.current().nextInt(restantes);
+        var ultima = --restantes;
+        var valor = trocas.getOrDefault(sorteada, sorteada);
+        trocas.put(sorteada, trocas.getOrDefault(ultima, ultima));
+        return valor;
+    }
+}
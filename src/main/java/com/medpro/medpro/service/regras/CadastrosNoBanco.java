@@ -0,0 +1,39 @@
+package com.medpro.medpro.service.regras;
+
+import com.medpro.medpro.enums.Especialidade;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Situação de paciente e médico em uma única ida ao banco (subconsultas pela chave primária)
+@Component
+public class CadastrosNoBanco implements FonteCadastros {
+
+    private static final String SQL = """
+            select
+                (select p.ativo from pacientes p where p.id = ?) as paciente_ativo,
+                (select m.ativo from medicos m where m.id = ?) as medico_ativo,
+                (select m.especialidade from medicos m where m.id = ?) as medico_especialidade
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public CadastrosNoBanco(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public SituacaoCadastros consultar(Long pacienteId, Long medicoId) {
+        return jdbc.queryForObject(SQL, (rs, linha) -> {
+            Boolean pacienteAtivo = rs.getBoolean("paciente_ativo");
+            if (rs.wasNull()) {
+                pacienteAtivo = null;
+            }
+            Boolean medicoAtivo = rs.getBoolean("medico_ativo");
+            if (rs.wasNull()) {
+                medicoAtivo = null;
+            }
+            var especialidade = rs.getString("medico_especialidade");
+            return new SituacaoCadastros(pacienteAtivo, medicoAtivo, especialidade != null ? Especialidade.valueOf(especialidade) : null);
+        }, pacienteId, medicoId, medicoId);
+    }
+}
@@ -0,0 +1,84 @@
+package com.medpro.medpro.service.regras;
+
+import com.medpro.medpro.enums.Especialidade;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dados de uma tentativa de agendamento passados aos validadores. A situação de paciente e médico
+ * só é buscada na {@link FonteCadastros} quando o primeiro validador de banco pede, e uma única vez.
+ * No reagendamento, {@link #dataHoraOrigem()} é o horário atual da consulta movida.
+ */
+public final class ContextoAgendamento {
+
+    private final Long pacienteId;
+    private final Long medicoId;
+    private final LocalDateTime dataHora;
+    private final Especialidade especialidade;
+    private final LocalDateTime agora;
+    private final FonteCadastros fonte;
+    private final LocalDateTime dataHoraOrigem;
+
+    private SituacaoCadastros cadastros;
+
+    public ContextoAgendamento(Long pacienteId, Long medicoId, LocalDateTime dataHora, Especialidade especialidade,
+            LocalDateTime agora, FonteCadastros fonte) {
+        this(pacienteId, medicoId, dataHora, especialidade, agora, fonte, null);
+    }
+
+    private ContextoAgendamento(Long pacienteId, Long medicoId, LocalDateTime dataHora, Especialidade especialidade,
+            LocalDateTime agora, FonteCadastros fonte, LocalDateTime dataHoraOrigem) {
+        this.pacienteId = pacienteId;
+        this.medicoId = medicoId;
+        this.dataHora = dataHora;
+        this.especialidade = especialidade;
+        this.agora = agora;
+        this.fonte = fonte;
+        this.dataHoraOrigem = dataHoraOrigem;
+    }
+
+    public static ContextoAgendamento reagendamento(Long pacienteId, Long medicoId, LocalDateTime dataHoraOrigem,
+            LocalDateTime novaDataHora, LocalDateTime agora, FonteCadastros fonte) {
+        return new ContextoAgendamento(pacienteId, medicoId, novaDataHora, null, agora, fonte, dataHoraOrigem);
+    }
+
+    public Long pacienteId() {
+        return pacienteId;
+    }
+
+    public Long medicoId() {
+        return medicoId;
+    }
+
+    public LocalDateTime dataHora() {
+        return dataHora;
+    }
+
+    public LocalDateTime agora() {
+        return agora;
+    }
+
+    // null fora do reagendamento
+    public LocalDateTime dataHoraOrigem() {
+        return dataHoraOrigem;
+    }
+
+    // Especialidade informada ou, se o médico foi escolhido e já consultado, a dele
+    public Especialidade especialidade() {
+        if (especialidade == null && cadastros != null) {
+            return cadastros.especialidadeMedico();
+        }
+        return especialidade;
+    }
+
+    public Especialidade especialidadeInformada() {
+        return especialidade;
+    }
+
+    public SituacaoCadastros cadastros() {
+        if (cadastros == null) {
+            cadastros = fonte.consultar(pacienteId, medicoId);
+        }
+        return cadastros;
+    }
+}
@@ -0,0 +1,7 @@
+package com.medpro.medpro.service.regras;
+
+// Ordem de execução dos validadores: os de memória rodam antes de qualquer ida ao banco
+public enum CustoValidacao {
+    MEMORIA,
+    BANCO
+}
@@ -0,0 +1,8 @@
+package com.medpro.medpro.service.regras;
+
+// De onde os validadores de BANCO leem paciente e médico (banco, ou mapas pré-carregados na importação)
+@FunctionalInterface
+public interface FonteCadastros {
+
+    SituacaoCadastros consultar(Long pacienteId, Long medicoId);
+}
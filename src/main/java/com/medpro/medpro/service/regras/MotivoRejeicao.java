@@ -0,0 +1,41 @@
+package com.medpro.medpro.service.regras;
+
+import java.util.Locale;
+
+// Motivos de recusa pré-alocados: validar uma consulta não cria mensagens novas
+public enum MotivoRejeicao {
+
+    CAMPOS_OBRIGATORIOS("Campos pacienteId e dataHora são obrigatórios."),
+    HORARIO_FUNCIONAMENTO("Consulta fora do horário de funcionamento (07:00 às 19:00)."),
+    DOMINGO("A clínica não funciona aos domingos."),
+    ANTECEDENCIA("A consulta deve ser agendada com no mínimo 30 minutos de antecedência."),
+    ESPECIALIDADE_OBRIGATORIA("Especialidade é obrigatória quando o médico não é escolhido."),
+    PACIENTE_MESMO_DIA("Paciente já possui uma consulta agendada para esse dia."),
+    MEDICO_OCUPADO("Médico já possui outra consulta agendada nesse mesmo horário."),
+    PACIENTE_NAO_ENCONTRADO("Paciente não encontrado."),
+    PACIENTE_INATIVO("Consulta não pode ser agendada com paciente inativo."),
+    MEDICO_NAO_ENCONTRADO("Médico não encontrado."),
+    MEDICO_INATIVO("Consulta não pode ser agendada com médico inativo."),
+    SEM_MEDICO_LIVRE("Não existe médico disponível para essa especialidade nessa data/hora."),
+    CANCELAMENTO_ANTECEDENCIA("Consulta só pode ser cancelada com antecedência mínima de 24h."),
+    CANCELAMENTO_SITUACAO("Apenas consultas agendadas podem ser canceladas."),
+    REAGENDAMENTO_SITUACAO("Apenas consultas agendadas podem ser reagendadas."),
+    REAGENDAMENTO_MESMO_HORARIO("A consulta já está agendada para esse horário.");
+
+    private final String mensagem;
+    private final String regra;
+
+    MotivoRejeicao(String mensagem) {
+        this.mensagem = mensagem;
+        this.regra = name().toLowerCase(Locale.ROOT);
+    }
+
+    public String mensagem() {
+        return mensagem;
+    }
+
+    // Nome usado como tag nas métricas
+    public String regra() {
+        return regra;
+    }
+}
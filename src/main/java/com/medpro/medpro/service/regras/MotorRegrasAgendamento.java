@@ -0,0 +1,68 @@
+package com.medpro.medpro.service.regras;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Executa os {@link ValidadorAgendamento} registrados, dos mais baratos aos mais caros, e para na
+ * primeira recusa. Assim as regras de calendário e do índice em memória descartam a tentativa antes
+ * da consulta de cadastros, que é feita uma única vez para todos os validadores de banco.
+ * <p>
+ * Usado pelo agendamento, pela importação em lote e pelo reagendamento. O agendamento assíncrono roda
+ * cada custo em um momento: os de memória na recepção e os de banco na gravação em lote.
+ */
+@Component
+public class MotorRegrasAgendamento {
+
+    private final ValidadorAgendamento[] validadores;
+    private final ValidadorAgendamento[] validadoresReagendamento;
+
+    public MotorRegrasAgendamento(List<ValidadorAgendamento> validadores) {
+        // Ordenação estável: dentro do mesmo custo vale o @Order de cada validador
+        this.validadores = validadores.stream()
+                .sorted(Comparator.comparing(ValidadorAgendamento::custo))
+                .toArray(ValidadorAgendamento[]::new);
+        this.validadoresReagendamento = Arrays.stream(this.validadores)
+                .filter(ValidadorAgendamento::reagendamento)
+                .toArray(ValidadorAgendamento[]::new);
+    }
+
+    // null quando todas as regras são atendidas
+    public MotivoRejeicao validar(ContextoAgendamento contexto) {
+        for (var validador : validadores) {
+            var motivo = validador.validar(contexto);
+            if (motivo != null) {
+                return motivo;
+            }
+        }
+        return null;
+    }
+
+    // Só as regras afetadas pela troca de horário (ver ValidadorAgendamento#reagendamento)
+    public MotivoRejeicao validarReagendamento(ContextoAgendamento contexto) {
+        for (var validador : validadoresReagendamento) {
+            var motivo = validador.validar(contexto);
+            if (motivo != null) {
+                return motivo;
+            }
+        }
+        return null;
+    }
+
+    // Só os validadores do custo informado
+    public MotivoRejeicao validar(ContextoAgendamento contexto, CustoValidacao custo) {
+        for (var validador : validadores) {
+            if (validador.custo() != custo) {
+                continue;
+            }
+            var motivo = validador.validar(contexto);
+            if (motivo != null) {
+                return motivo;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,6 @@
+package com.medpro.medpro.service.regras;
+
+import com.medpro.medpro.enums.Especialidade;
+
+// Situação de paciente e médico; campos nulos quando o cadastro não existe (ou o médico não foi informado)
+public record SituacaoCadastros(Boolean pacienteAtivo, Boolean medicoAtivo, Especialidade especialidadeMedico) {}
@@ -0,0 +1,18 @@
+package com.medpro.medpro.service.regras;
+
+/**
+ * Regra do agendamento de consultas. Cada implementação é um {@code @Component} recolhido pelo
+ * {@link MotorRegrasAgendamento}, que executa primeiro as de {@link CustoValidacao#MEMORIA}.
+ */
+public interface ValidadorAgendamento {
+
+    CustoValidacao custo();
+
+    // null quando a regra é atendida
+    MotivoRejeicao validar(ContextoAgendamento contexto);
+
+    // Se a regra depende do horário ou do médico, e por isso vale também ao reagendar
+    default boolean reagendamento() {
+        return true;
+    }
+}
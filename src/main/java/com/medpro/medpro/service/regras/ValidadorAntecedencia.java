@@ -0,0 +1,27 @@
+package com.medpro.medpro.service.regras;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.temporal.ChronoUnit;
+
+// Antecedência mínima de 30 minutos
+@Component
+@Order(3)
+public class ValidadorAntecedencia implements ValidadorAgendamento {
+
+    private static final long ANTECEDENCIA_MINUTOS = 30;
+
+    @Override
+    public CustoValidacao custo() {
+        return CustoValidacao.MEMORIA;
+    }
+
+    @Override
+    public MotivoRejeicao validar(ContextoAgendamento contexto) {
+        if (ChronoUnit.MINUTES.between(contexto.agora(), contexto.dataHora()) < ANTECEDENCIA_MINUTOS) {
+            return MotivoRejeicao.ANTECEDENCIA;
+        }
+        return null;
+    }
+}
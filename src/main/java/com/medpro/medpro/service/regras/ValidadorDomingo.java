@@ -0,0 +1,22 @@
+package com.medpro.medpro.service.regras;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+
+// Funcionamento de segunda a sábado
+@Component
+@Order(2)
+public class ValidadorDomingo implements ValidadorAgendamento {
+
+    @Override
+    public CustoValidacao custo() {
+        return CustoValidacao.MEMORIA;
+    }
+
+    @Override
+    public MotivoRejeicao validar(ContextoAgendamento contexto) {
+        return contexto.dataHora().getDayOfWeek() == DayOfWeek.SUNDAY ? MotivoRejeicao.DOMINGO : null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.medpro.medpro.service.regras;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Sem médico escolhido, a especialidade orienta o sorteio
+@Component
+@Order(4)
+public class ValidadorEspecialidadeObrigatoria implements ValidadorAgendamento {
+
+    @Override
+    public CustoValidacao custo() {
+        return CustoValidacao.MEMORIA;
+    }
+
+    @Override
+    public boolean reagendamento() {
+        return false;
+    }
+
+    @Override
+    public MotivoRejeicao validar(ContextoAgendamento contexto) {
+        if (contexto.medicoId() == null && contexto.especialidadeInformada() == null) {
+            return MotivoRejeicao.ESPECIALIDADE_OBRIGATORIA;
+        }
+        return null;
+    }
+}
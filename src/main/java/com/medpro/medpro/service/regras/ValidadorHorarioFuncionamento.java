@@ -0,0 +1,29 @@
+package com.medpro.medpro.service.regras;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+
+// Consultas de 1h, funcionamento das 07:00 às 19:00: a última consulta começa às 18:00
+@Component
+@Order(1)
+public class ValidadorHorarioFuncionamento implements ValidadorAgendamento {
+
+    private static final LocalTime ABERTURA = LocalTime.of(7, 0);
+    private static final LocalTime ULTIMO_INICIO = LocalTime.of(18, 0);
+
+    @Override
+    public CustoValidacao custo() {
+        return CustoValidacao.MEMORIA;
+    }
+
+    @Override
+    public MotivoRejeicao validar(ContextoAgendamento contexto) {
+        var hora = contexto.dataHora().toLocalTime();
+        if (hora.isBefore(ABERTURA) || hora.isAfter(ULTIMO_INICIO)) {
+            return MotivoRejeicao.HORARIO_FUNCIONAMENTO;
+        }
+        return null;
+    }
+}
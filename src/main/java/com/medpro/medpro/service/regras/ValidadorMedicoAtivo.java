@@ -0,0 +1,27 @@
+package com.medpro.medpro.service.regras;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Médico escolhido existente e ativo
+@Component
+@Order(8)
+public class ValidadorMedicoAtivo implements ValidadorAgendamento {
+
+    @Override
+    public CustoValidacao custo() {
+        return CustoValidacao.BANCO;
+    }
+
+    @Override
+    public MotivoRejeicao validar(ContextoAgendamento contexto) {
+        if (contexto.medicoId() == null) {
+            return null;
+        }
+        var ativo = contexto.cadastros().medicoAtivo();
+        if (ativo == null) {
+            return MotivoRejeicao.MEDICO_NAO_ENCONTRADO;
+        }
+        return ativo ? null : MotivoRejeicao.MEDICO_INATIVO;
+    }
+}
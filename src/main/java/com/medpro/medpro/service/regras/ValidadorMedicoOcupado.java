@@ -0,0 +1,30 @@
+package com.medpro.medpro.service.regras;
+
+import com.medpro.medpro.service.OcupacaoAgenda;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Médico escolhido já possui consulta nessa hora
+@Component
+@Order(6)
+public class ValidadorMedicoOcupado implements ValidadorAgendamento {
+
+    private final OcupacaoAgenda ocupacao;
+
+    public ValidadorMedicoOcupado(OcupacaoAgenda ocupacao) {
+        this.ocupacao = ocupacao;
+    }
+
+    @Override
+    public CustoValidacao custo() {
+        return CustoValidacao.MEMORIA;
+    }
+
+    @Override
+    public MotivoRejeicao validar(ContextoAgendamento contexto) {
+        if (contexto.medicoId() != null && ocupacao.medicoOcupado(contexto.medicoId(), contexto.dataHora())) {
+            return MotivoRejeicao.MEDICO_OCUPADO;
+        }
+        return null;
+    }
+}
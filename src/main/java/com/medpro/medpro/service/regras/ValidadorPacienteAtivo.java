@@ -0,0 +1,29 @@
+package com.medpro.medpro.service.regras;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Paciente existente e ativo
+@Component
+@Order(7)
+public class ValidadorPacienteAtivo implements ValidadorAgendamento {
+
+    @Override
+    public CustoValidacao custo() {
+        return CustoValidacao.BANCO;
+    }
+
+    @Override
+    public boolean reagendamento() {
+        return false;
+    }
+
+    @Override
+    public MotivoRejeicao validar(ContextoAgendamento contexto) {
+        var ativo = contexto.cadastros().pacienteAtivo();
+        if (ativo == null) {
+            return MotivoRejeicao.PACIENTE_NAO_ENCONTRADO;
+        }
+        return ativo ? null : MotivoRejeicao.PACIENTE_INATIVO;
+    }
+}
@@ -0,0 +1,35 @@
+package com.medpro.medpro.service.regras;
+
+import com.medpro.medpro.service.OcupacaoAgenda;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Não permitir mais de uma consulta no mesmo dia para o mesmo paciente
+@Component
+@Order(5)
+public class ValidadorPacienteNoDia implements ValidadorAgendamento {
+
+    private final OcupacaoAgenda ocupacao;
+
+    public ValidadorPacienteNoDia(OcupacaoAgenda ocupacao) {
+        this.ocupacao = ocupacao;
+    }
+
+    @Override
+    public CustoValidacao custo() {
+        return CustoValidacao.MEMORIA;
+    }
+
+    @Override
+    public MotivoRejeicao validar(ContextoAgendamento contexto) {
+        // Ao reagendar no mesmo dia, a consulta encontrada é a própria que está sendo movida
+        var origem = contexto.dataHoraOrigem();
+        if (origem != null && origem.toLocalDate().equals(contexto.dataHora().toLocalDate())) {
+            return null;
+        }
+        if (ocupacao.pacientePossuiConsultaNoDia(contexto.pacienteId(), contexto.dataHora())) {
+            return MotivoRejeicao.PACIENTE_MESMO_DIA;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,4 @@
+-- Controle de concorrência otimista (@Version): cada atualização incrementa a versão da linha
+alter table medicos add versao bigint not null default 0;
+alter table pacientes add versao bigint not null default 0;
+alter table consultas add versao bigint not null default 0;
@@ -0,0 +1,10 @@
+-- Busca por nome: FULLTEXT com collation sem acento (João = joao)
+alter table pacientes modify nome varchar(100) character set utf8mb4 collate utf8mb4_0900_ai_ci not null;
+alter table medicos modify nome varchar(100) character set utf8mb4 collate utf8mb4_0900_ai_ci not null;
+create fulltext index ft_pacientes_nome on pacientes (nome);
+create fulltext index ft_medicos_nome on medicos (nome);
+
+-- Busca por prefixo de CPF, com ou sem pontuação
+alter table pacientes
+    add cpf_digitos varchar(14) generated always as (replace(replace(replace(cpf, '.', ''), '-', ''), ' ', '')) virtual;
+create index idx_pacientes_cpf_digitos on pacientes (cpf_digitos);
@@ -0,0 +1,34 @@
+-- Totais diários de consultas (por dia da consulta), mantidos por EstatisticasAgenda e reconciliados todo dia
+create table estatisticas_diarias_medico (
+    medico_id bigint not null,
+    dia date not null,
+    agendadas int not null default 0,
+    canceladas int not null default 0,
+    canceladas_com_motivo int not null default 0,
+
+    primary key (medico_id, dia)
+);
+
+create table estatisticas_diarias_especialidade (
+    dia date not null,
+    especialidade varchar(100) not null,
+    agendadas int not null default 0,
+    canceladas int not null default 0,
+    canceladas_com_motivo int not null default 0,
+
+    primary key (dia, especialidade)
+);
+
+-- Carga inicial a partir das consultas existentes
+insert into estatisticas_diarias_medico (medico_id, dia, agendadas, canceladas, canceladas_com_motivo)
+select c.medico_id, c.dia, count(*),
+       sum(c.situacao = 'CANCELADA'),
+       sum(c.situacao = 'CANCELADA' and coalesce(c.motivo_cancelamento, '') <> '')
+from consultas c
+group by c.medico_id, c.dia;
+
+insert into estatisticas_diarias_especialidade (dia, especialidade, agendadas, canceladas, canceladas_com_motivo)
+select e.dia, m.especialidade, sum(e.agendadas), sum(e.canceladas), sum(e.canceladas_com_motivo)
+from estatisticas_diarias_medico e
+join medicos m on m.id = e.medico_id
+group by e.dia, m.especialidade;
@@ -0,0 +1,72 @@
+-- Particionamento mensal de consultas pelo dia da consulta. O MySQL exige, em tabela particionada:
+-- nenhuma chave estrangeira e a coluna de particionamento em toda chave única (inclusive a primária).
+-- Sem as FKs, a existência de médico e paciente passa a ser conferida pela aplicação antes de gravar: pelas
+-- regras de agendamento no POST e, nos batches, também explicitamente (ImportacaoConsultas, AgendamentoAssincrono).
+alter table consultas
+    drop foreign key fk_consulta_medico,
+    drop foreign key fk_consulta_paciente;
+
+-- dia (V7) é virtual e o MySQL não converte coluna gerada entre virtual e stored; particionar exige stored.
+-- A coluna é recriada, junto com a chave única que a usa.
+alter table consultas
+    drop index uk_consultas_paciente_dia_ativa,
+    drop column dia;
+
+alter table consultas add dia date generated always as (cast(data_hora as date)) stored;
+
+create unique index uk_consultas_paciente_dia_ativa on consultas (paciente_id, dia, ativa);
+
+-- dia é derivado de data_hora: incluí-lo não muda o que as chaves garantem
+alter table consultas
+    drop primary key,
+    add primary key (id, dia),
+    drop index uk_consultas_medico_horario_ativa,
+    add unique index uk_consultas_medico_horario_ativa (medico_id, data_hora, ativa, dia);
+
+-- Meses seguintes são criados por ArquivamentoConsultas, dividindo p_futuro
+alter table consultas partition by range columns (dia) (
+    partition p_anteriores values less than ('2026-01-01'),
+    partition p2026_01 values less than ('2026-02-01'),
+    partition p2026_02 values less than ('2026-03-01'),
+    partition p2026_03 values less than ('2026-04-01'),
+    partition p2026_04 values less than ('2026-05-01'),
+    partition p2026_05 values less than ('2026-06-01'),
+    partition p2026_06 values less than ('2026-07-01'),
+    partition p2026_07 values less than ('2026-08-01'),
+    partition p2026_08 values less than ('2026-09-01'),
+    partition p2026_09 values less than ('2026-10-01'),
+    partition p2026_10 values less than ('2026-11-01'),
+    partition p2026_11 values less than ('2026-12-01'),
+    partition p2026_12 values less than ('2027-01-01'),
+    partition p2027_01 values less than ('2027-02-01'),
+    partition p2027_02 values less than ('2027-03-01'),
+    partition p2027_03 values less than ('2027-04-01'),
+    partition p2027_04 values less than ('2027-05-01'),
+    partition p2027_05 values less than ('2027-06-01'),
+    partition p2027_06 values less than ('2027-07-01'),
+    partition p2027_07 values less than ('2027-08-01'),
+    partition p2027_08 values less than ('2027-09-01'),
+    partition p2027_09 values less than ('2027-10-01'),
+    partition p2027_10 values less than ('2027-11-01'),
+    partition p2027_11 values less than ('2027-12-01'),
+    partition p2027_12 values less than ('2028-01-01'),
+    partition p_futuro values less than (maxvalue)
+);
+
+-- Consultas realizadas ou canceladas há mais de N meses (ver ArquivamentoConsultas)
+create table consultas_arquivo (
+    id bigint not null,
+    medico_id bigint not null,
+    paciente_id bigint not null,
+    data_hora datetime not null,
+    motivo varchar(255),
+    motivo_cancelamento varchar(255),
+    situacao enum('REALIZADA', 'CANCELADA') not null,
+    criado_em datetime not null,
+    versao bigint not null,
+    arquivado_em datetime not null,
+
+    primary key (id),
+    index idx_consultas_arquivo_medico_data_hora (medico_id, data_hora),
+    index idx_consultas_arquivo_paciente_data_hora (paciente_id, data_hora)
+);
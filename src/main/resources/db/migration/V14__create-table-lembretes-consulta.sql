@@ -0,0 +1,22 @@
+-- Caixa de saída dos lembretes de consulta (ver LembretesConsulta). Um lembrete por consulta e horário:
+-- uma consulta reagendada ganha um novo lembrete para o novo horário.
+create table lembretes_consulta (
+    id bigint not null auto_increment,
+    consulta_id bigint not null,
+    paciente_id bigint not null,
+    medico_id bigint not null,
+    data_hora_consulta datetime not null,
+    situacao enum('PENDENTE', 'ENVIADO', 'FALHOU', 'DESCARTADO') not null,
+    tentativas int not null,
+    proxima_tentativa datetime not null,
+    erro varchar(255),
+    criado_em datetime not null,
+    enviado_em datetime,
+
+    primary key (id),
+    unique index uk_lembretes_consulta_horario (consulta_id, data_hora_consulta),
+    -- Fila de envio: pendentes cuja próxima tentativa já venceu
+    index idx_lembretes_situacao_proxima (situacao, proxima_tentativa, id),
+    -- Limpeza dos lembretes antigos
+    index idx_lembretes_data_hora_consulta (data_hora_consulta)
+);
@@ -0,0 +1,13 @@
+-- Deltas das estatísticas diárias, gravados na mesma transação da consulta (ver EstatisticasAgenda).
+-- A cada intervalo são somados a estatisticas_diarias_* e apagados; a reconciliação os lê no mesmo snapshot
+-- de consultas, então cada consulta é contada uma única vez.
+create table estatisticas_deltas (
+    id bigint not null auto_increment,
+    medico_id bigint not null,
+    dia date not null,
+    agendadas int not null,
+    canceladas int not null,
+    canceladas_com_motivo int not null,
+
+    primary key (id)
+);
@@ -0,0 +1,17 @@
+-- Situação com valores fixos: ENUM ocupa 1 byte por linha em vez de um VARCHAR(20)
+alter table consultas modify situacao enum('AGENDADA', 'CANCELADA') not null;
+
+-- existsByMedicoIdAndDataHoraAndSituacaoNot (também substitui o índice implícito de fk_consulta_medico)
+create index idx_consultas_medico_data_hora on consultas (medico_id, data_hora, situacao);
+
+-- existsByPacienteIdAndDataHora(Between)AndSituacaoNot (também substitui o índice implícito de fk_consulta_paciente)
+create index idx_consultas_paciente_data_hora on consultas (paciente_id, data_hora, situacao);
+
+-- listar ordenado por data_hora, carga do índice de ocupação e subconsulta de escolherMedicoAleatorioLivreNaData
+create index idx_consultas_data_hora on consultas (data_hora, situacao, medico_id, paciente_id);
+
+-- findAllByAtivoTrue, escolherMedicoAleatorioLivreNaData e listarAtivosPorEspecialidade
+create index idx_medicos_ativo_especialidade on medicos (ativo, especialidade);
+
+-- findAllByAtivoTrue
+create index idx_pacientes_ativo on pacientes (ativo);
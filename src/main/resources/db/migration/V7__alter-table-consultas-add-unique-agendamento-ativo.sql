@@ -0,0 +1,10 @@
+-- Colunas geradas: 'ativa' fica nula quando a consulta é cancelada, liberando o horário nas chaves únicas
+alter table consultas
+    add ativa tinyint generated always as (if(situacao = 'CANCELADA', null, 1)) virtual,
+    add dia date generated always as (cast(data_hora as date)) virtual;
+
+-- Regra: Médico não pode ter duas consultas ativas no mesmo horário
+create unique index uk_consultas_medico_horario_ativa on consultas (medico_id, data_hora, ativa);
+
+-- Regra: Paciente não pode ter duas consultas ativas no mesmo dia
+create unique index uk_consultas_paciente_dia_ativa on consultas (paciente_id, dia, ativa);
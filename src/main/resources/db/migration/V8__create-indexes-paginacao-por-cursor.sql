@@ -0,0 +1,9 @@
+-- Paginação por cursor em consultas: (data_hora, id) na ordem do índice, sem filesort
+drop index idx_consultas_data_hora on consultas;
+create index idx_consultas_data_hora on consultas (data_hora, id);
+
+-- Paginação por cursor em médicos e pacientes ativos: (nome, id); o id já vem implícito no índice
+create index idx_medicos_ativo_nome on medicos (ativo, nome);
+
+drop index idx_pacientes_ativo on pacientes;
+create index idx_pacientes_ativo_nome on pacientes (ativo, nome);
@@ -0,0 +1,9 @@
+-- Resultado das solicitações de agendamento assíncrono, pela chave de idempotência enviada pelo cliente.
+-- Sem chave estrangeira para consultas: é um registro do que foi respondido ao cliente.
+create table solicitacoes_agendamento (
+    chave varchar(64) not null primary key,
+    situacao enum('CONFIRMADA', 'RECUSADA') not null,
+    consulta_id bigint,
+    motivo varchar(255),
+    criado_em datetime not null
+);
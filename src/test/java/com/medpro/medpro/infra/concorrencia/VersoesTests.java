@@ -0,0 +1,50 @@
+package com.medpro.medpro.infra.concorrencia;
+
+import com.medpro.medpro.infra.exception.VersaoDivergenteException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VersoesTests {
+
+	@Test
+	void etagDaVersaoEComposta() {
+		assertEquals("\"3\"", Versoes.etag(3L));
+		assertEquals("\"3-1-7\"", Versoes.etag(3L, 1L, 7L));
+	}
+
+	@ParameterizedTest
+	@NullAndEmptySource
+	@ValueSource(strings = { "  ", "*", " * " })
+	void semIfMatchOuCuringaSegue(String ifMatch) {
+		assertDoesNotThrow(() -> Versoes.conferir(ifMatch, 3L));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "\"3-1-7\"", "\"2-1-7\", \"3-1-7\"", " W/\"9\" ,\"3-1-7\" " })
+	void aceitaQualquerEtagForteDaLista(String ifMatch) {
+		assertDoesNotThrow(() -> Versoes.conferir(ifMatch, Versoes.etag(3L, 1L, 7L)));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "W/\"3-1-7\"", "\"2-1-7\", W/\"3-1-7\"" })
+	void recusaEtagFracaMesmoComValorIgual(String ifMatch) {
+		var atual = Versoes.etag(3L, 1L, 7L);
+		var erro = assertThrows(VersaoDivergenteException.class, () -> Versoes.conferir(ifMatch, atual));
+		assertEquals(atual, erro.getEtagAtual());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "\"2\"", "3", "\"3-1\"", "W/\"2\", \"4\"" })
+	void recusaEtagDivergente(String ifMatch) {
+		var erro = assertThrows(VersaoDivergenteException.class, () -> Versoes.conferir(ifMatch, 3L));
+
+		// A ETag atual vai na resposta 412, para o cliente reler o recurso
+		assertEquals("\"3\"", erro.getEtagAtual());
+	}
+}
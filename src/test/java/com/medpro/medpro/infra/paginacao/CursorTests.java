@@ -0,0 +1,60 @@
+package com.medpro.medpro.infra.paginacao;
+
+import com.medpro.medpro.infra.exception.RequisicaoInvalidaException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorTests {
+
+	@Test
+	void codificaEDecodificaDataHoraEId() {
+		var dataHora = LocalDateTime.of(2026, 3, 9, 14, 0);
+		var codificado = new Cursor(dataHora, 42L).codificar();
+
+		// URL-safe e sem padding: vai direto na query string
+		assertFalse(codificado.contains("=") || codificado.contains("+") || codificado.contains("/"));
+		var cursor = Cursor.decodificar(codificado);
+		assertEquals(dataHora, cursor.dataHora());
+		assertEquals(42L, cursor.id());
+	}
+
+	@Test
+	void valorComSeparadorUsaOUltimoComoDivisa() {
+		var cursor = Cursor.decodificar(new Cursor("Ana | Maria", 7L).codificar());
+
+		assertEquals("Ana | Maria", cursor.valor());
+		assertEquals(7L, cursor.id());
+	}
+
+	@ParameterizedTest
+	@NullAndEmptySource
+	@ValueSource(strings = { "%%%", "não é base64" })
+	void recusaCursorQueNaoEBase64(String texto) {
+		assertThrows(RequisicaoInvalidaException.class, () -> Cursor.decodificar(texto));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "sem separador", "2026-03-09T14:00|", "2026-03-09T14:00|abc" })
+	void recusaCursorSemIdValido(String texto) {
+		var codificado = Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+
+		assertThrows(RequisicaoInvalidaException.class, () -> Cursor.decodificar(codificado));
+	}
+
+	@Test
+	void recusaDataHoraInvalidaNoCursorDeConsultas() {
+		var cursor = Cursor.decodificar(new Cursor("ontem", 1L).codificar());
+
+		assertThrows(RequisicaoInvalidaException.class, cursor::dataHora);
+	}
+}
@@ -0,0 +1,159 @@
+package com.medpro.medpro.repository;
+
+import com.medpro.medpro.enums.Especialidade;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Chama cada consulta dos repositórios, pega no performance_schema o SQL que o Hibernate gerou (com os
+ * valores, já que o driver monta o texto no cliente) e roda EXPLAIN sobre ele: falha se o índice criado
+ * para a consulta não for o escolhido pelo otimizador.
+ * <p>
+ * O volume é semeado antes dos testes (em 2031, com marcador em motivo e e-mail) e removido no fim; com
+ * tabelas pequenas o otimizador prefere ler tudo e o teste não diria nada.
+ */
+@SpringBootTest
+@Transactional
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IndicesConsultasTests {
+
+	private static final int MEDICOS = 2_000;
+	private static final int PACIENTES = 5_000;
+	private static final int CONSULTAS = 20_000;
+	private static final int CONSULTAS_POR_DIA = 100;
+	private static final String MARCADOR = "indices-teste";
+	private static final LocalDateTime INICIO = LocalDateTime.of(2031, 1, 6, 7, 0);
+
+	// Mesma conexão da transação do teste: o último select dela é o que o repositório acabou de executar
+	private static final String ULTIMO_SELECT = """
+			select h.sql_text from performance_schema.events_statements_history h
+			where h.thread_id = ps_current_thread_id()
+			and h.sql_text like 'select%'
+			order by h.event_id desc
+			limit 1
+			""";
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Autowired
+	private ConsultaRepository consultaRepo;
+
+	@Autowired
+	private MedicoRepository medicoRepo;
+
+	@Autowired
+	private PacienteRepository pacienteRepo;
+
+	private long primeiroMedico;
+	private long primeiroPaciente;
+
+	@BeforeAll
+	void semear() {
+		var especialidades = Especialidade.values();
+		jdbc.batchUpdate("""
+				insert into medicos (nome, email, crm, especialidade, logradouro, bairro, cep, uf, cidade, telefone, ativo)
+				values (?, ?, ?, ?, 'Rua A', 'Centro', '00000-000', 'SP', 'São Paulo', '11999999999', 1)
+				""", IntStream.range(0, MEDICOS).mapToObj(i -> new Object[] {
+						"Medico Indice " + i, "medico" + i + "@" + MARCADOR, String.format("T%05d", i),
+						especialidades[i % especialidades.length].name() }).toList());
+		jdbc.batchUpdate("""
+				insert into pacientes (cpf, nome, email, telefone, logradouro, bairro, cep, cidade, uf, ativo)
+				values (?, ?, ?, '11999999999', 'Rua A', 'Centro', '00000-000', 'São Paulo', 'SP', 1)
+				""", IntStream.range(0, PACIENTES).mapToObj(i -> new Object[] {
+						String.format("999.%03d.%03d-00", i / 1000, i % 1000), "Paciente Indice " + i,
+						"paciente" + i + "@" + MARCADOR }).toList());
+		primeiroMedico = jdbc.queryForObject("select min(id) from medicos where email like ?", Long.class, "%@" + MARCADOR);
+		primeiroPaciente = jdbc.queryForObject("select min(id) from pacientes where email like ?", Long.class, "%@" + MARCADOR);
+
+		// 100 consultas por dia, médicos e pacientes distintos dentro do dia; uma em cada dez cancelada
+		var consultas = new ArrayList<Object[]>(CONSULTAS);
+		for (int i = 0; i < CONSULTAS; i++) {
+			var dataHora = INICIO.plusDays(i / CONSULTAS_POR_DIA).plusHours(i % 11);
+			consultas.add(new Object[] { primeiroMedico + i % MEDICOS, primeiroPaciente + i % PACIENTES,
+					Timestamp.valueOf(dataHora), MARCADOR, i % 10 == 0 ? "CANCELADA" : "AGENDADA" });
+		}
+		jdbc.batchUpdate("""
+				insert into consultas (medico_id, paciente_id, data_hora, motivo, situacao, criado_em)
+				values (?, ?, ?, ?, ?, now())
+				""", consultas);
+		jdbc.execute("analyze table consultas, medicos, pacientes");
+	}
+
+	@AfterAll
+	void limpar() {
+		jdbc.update("delete from consultas where motivo = ?", MARCADOR);
+		jdbc.update("delete from medicos where email like ?", "%@" + MARCADOR);
+		jdbc.update("delete from pacientes where email like ?", "%@" + MARCADOR);
+	}
+
+	Stream<Arguments> consultas() {
+		var diaDoMeio = INICIO.plusDays(CONSULTAS / CONSULTAS_POR_DIA / 2);
+		var ultimoDia = INICIO.plusDays(CONSULTAS / CONSULTAS_POR_DIA - 1).toLocalDate().atStartOfDay();
+		var limite = PageRequest.ofSize(11);
+		return Stream.of(
+				caso("consultas.listarAgendaDoMedico", "idx_consultas_medico_data_hora",
+						() -> consultaRepo.listarAgendaDoMedico(primeiroMedico, diaDoMeio, diaDoMeio.plusDays(6))),
+				caso("consultas.listarOcupacaoAPartirDe", "idx_consultas_data_hora",
+						() -> consultaRepo.listarOcupacaoAPartirDe(ultimoDia)),
+				caso("consultas.listarPrimeiras", "idx_consultas_data_hora",
+						() -> consultaRepo.listarPrimeiras(limite)),
+				caso("consultas.listarApos", "idx_consultas_data_hora",
+						() -> consultaRepo.listarApos(diaDoMeio, 1L, limite)),
+				caso("medicos.listarAtivosPorEspecialidade", "idx_medicos_ativo_especialidade",
+						() -> medicoRepo.listarAtivosPorEspecialidade()),
+				caso("medicos.escolherMedicoAleatorioLivreNaData", "idx_medicos_ativo_especialidade",
+						() -> medicoRepo.escolherMedicoAleatorioLivreNaData(Especialidade.CARDIOLOGIA, diaDoMeio)),
+				caso("medicos.findByAtivoTrueOrderByNomeAscIdAsc", "idx_medicos_ativo_nome",
+						() -> medicoRepo.findByAtivoTrueOrderByNomeAscIdAsc(limite)),
+				caso("medicos.listarAtivosApos", "idx_medicos_ativo_nome",
+						() -> medicoRepo.listarAtivosApos("Medico Indice 5", 1L, limite)),
+				caso("medicos.buscarPorNome", "ft_medicos_nome",
+						() -> medicoRepo.buscarPorNome("+medico* +indice*", 20)),
+				caso("medicos.buscarPorCrm", "crm",
+						() -> medicoRepo.buscarPorCrm("T0001", limite)),
+				caso("pacientes.findByAtivoTrueOrderByNomeAscIdAsc", "idx_pacientes_ativo_nome",
+						() -> pacienteRepo.findByAtivoTrueOrderByNomeAscIdAsc(limite)),
+				caso("pacientes.listarAtivosApos", "idx_pacientes_ativo_nome",
+						() -> pacienteRepo.listarAtivosApos("Paciente Indice 5", 1L, limite)),
+				caso("pacientes.buscarPorNome", "ft_pacientes_nome",
+						() -> pacienteRepo.buscarPorNome("+paciente* +indice*", 20)),
+				caso("pacientes.buscarPorCpf", "idx_pacientes_cpf_digitos",
+						() -> pacienteRepo.buscarPorCpf("99900100", 20)));
+	}
+
+	@ParameterizedTest
+	@MethodSource("consultas")
+	void consultaUsaSeuIndice(Runnable chamada, String indice) {
+		chamada.run();
+		var sql = jdbc.queryForList(ULTIMO_SELECT, String.class).stream().findFirst().orElse(null);
+		assertNotNull(sql, "SQL do repositório não encontrado no performance_schema");
+
+		var plano = jdbc.queryForList("explain " + sql);
+		assertTrue(plano.stream().anyMatch(linha -> indice.equals(linha.get("key"))),
+				() -> "Plano não usa " + indice + ": " + plano + "\n" + sql);
+	}
+
+	private static Arguments caso(String consulta, String indice, Runnable chamada) {
+		return Arguments.of(Named.of(consulta, chamada), indice);
+	}
+}
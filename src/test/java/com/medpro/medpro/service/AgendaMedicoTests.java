@@ -0,0 +1,81 @@
+package com.medpro.medpro.service;
+
+import com.medpro.medpro.model.dto.DadosConsultaAgenda;
+import com.medpro.medpro.model.dto.DadosHorarioAgenda;
+import com.medpro.medpro.repository.ConsultaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AgendaMedicoTests {
+
+	private final LocalDate segunda = LocalDate.of(2026, 3, 9);
+
+	private ConsultaRepository consultaRepo;
+	private AgendaMedico agenda;
+
+	@BeforeEach
+	void setUp() {
+		consultaRepo = mock(ConsultaRepository.class);
+		// Em ordem de data_hora, como o repositório devolve; 06:30 e 19:00 ficam fora do funcionamento
+		when(consultaRepo.listarAgendaDoMedico(eq(1L), any(), any())).thenReturn(List.of(
+				new DadosConsultaAgenda(100L, segunda.atTime(6, 30), 10L, "Ana"),
+				new DadosConsultaAgenda(101L, segunda.atTime(7, 30), 11L, "Bruno"),
+				new DadosConsultaAgenda(102L, segunda.plusDays(1).atTime(10, 0), 12L, "Carla"),
+				new DadosConsultaAgenda(103L, segunda.plusDays(5).atTime(19, 0), 13L, "Davi")));
+		agenda = new AgendaMedico(consultaRepo, Duration.ofMinutes(1));
+	}
+
+	@Test
+	void montaSegundaASabadoComHorariosLivresEOcupados() {
+		var semana = agenda.semana(1L, segunda.plusDays(2));
+
+		assertEquals(segunda, semana.inicio());
+		assertEquals(6, semana.dias().size());
+		assertEquals(segunda.plusDays(5), semana.dias().get(5).dia());
+		semana.dias().forEach(dia -> assertEquals(OcupacaoAgenda.HORARIOS_POR_DIA, dia.horarios().size()));
+		verify(consultaRepo).listarAgendaDoMedico(1L, segunda.atStartOfDay(), segunda.plusDays(6).atStartOfDay());
+
+		// 07:30 ocupa o horário das 07:00; 06:30 não entra na grade
+		var seteHoras = semana.dias().get(0).horarios().get(0);
+		assertEquals(new DadosHorarioAgenda(segunda.atTime(7, 30), false, 101L, 11L, "Bruno"), seteHoras);
+		assertEquals(DadosHorarioAgenda.livre(segunda.atTime(8, 0)), semana.dias().get(0).horarios().get(1));
+
+		var terca = semana.dias().get(1).horarios();
+		assertEquals(102L, terca.get(3).consultaId());
+		assertEquals(1, terca.stream().filter(h -> !h.livre()).count());
+
+		// Sábado termina no horário das 18:00, livre: a consulta das 19:00 é ignorada
+		var sabado = semana.dias().get(5).horarios();
+		assertTrue(sabado.stream().allMatch(DadosHorarioAgenda::livre));
+		assertEquals(segunda.plusDays(5).atTime(OcupacaoAgenda.ULTIMA_HORA, 0), sabado.getLast().dataHora());
+
+		var ocupados = semana.dias().stream().flatMap(dia -> dia.horarios().stream()).filter(h -> !h.livre()).count();
+		assertEquals(2, ocupados);
+	}
+
+	@Test
+	void semanaFicaEmCacheAteSerAlterada() {
+		agenda.semana(1L, segunda.plusDays(3));
+		agenda.semana(1L, segunda);
+		verify(consultaRepo, times(1)).listarAgendaDoMedico(eq(1L), any(), any());
+
+		// Fora de transação a invalidação é imediata
+		agenda.alterada(1L, segunda.plusDays(4).atTime(9, 0));
+		assertFalse(agenda.semana(1L, segunda).dias().isEmpty());
+		verify(consultaRepo, times(2)).listarAgendaDoMedico(eq(1L), any(), any());
+	}
+}
@@ -0,0 +1,125 @@
+package com.medpro.medpro.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Geração, envio e nova tentativa de um lembrete pelo {@link EnvioLembreteArquivo}. A falha de envio é
+ * provocada com um diretório no lugar do arquivo de saída; removido o diretório, a nova tentativa grava.
+ * As varreduras agendadas ficam espaçadas para não disputar os lembretes com o teste.
+ */
+@SpringBootTest(properties = {
+		"medpro.lembretes.envio=arquivo",
+		"medpro.lembretes.varredura=3600000",
+		"medpro.lembretes.intervalo=3600000" })
+class LembretesConsultaTests {
+
+	private static final String MARCADOR = "lembretes-teste";
+	private static final Path ARQUIVO = Path.of(System.getProperty("java.io.tmpdir"), "medpro-" + MARCADOR + ".ndjson");
+
+	@DynamicPropertySource
+	static void arquivo(DynamicPropertyRegistry registro) {
+		registro.add("medpro.lembretes.arquivo", ARQUIVO::toString);
+	}
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Autowired
+	private LembretesConsulta lembretes;
+
+	private long consultaId;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		Files.deleteIfExists(ARQUIVO);
+		jdbc.update("""
+				insert into medicos (nome, email, crm, especialidade, logradouro, bairro, cep, uf, cidade, telefone, ativo)
+				values ('Medico Lembrete', ?, 'L00001', 'CARDIOLOGIA', 'Rua A', 'Centro', '00000-000', 'SP', 'São Paulo', '11999999999', 1)
+				""", "medico@" + MARCADOR);
+		jdbc.update("""
+				insert into pacientes (cpf, nome, email, telefone, logradouro, bairro, cep, cidade, uf, ativo)
+				values ('888.000.000-01', 'Paciente Lembrete', ?, '11999999999', 'Rua A', 'Centro', '00000-000', 'São Paulo', 'SP', 1)
+				""", "paciente@" + MARCADOR);
+		var medicoId = jdbc.queryForObject("select id from medicos where email = ?", Long.class, "medico@" + MARCADOR);
+		var pacienteId = jdbc.queryForObject("select id from pacientes where email = ?", Long.class, "paciente@" + MARCADOR);
+		var dataHora = LocalDateTime.now().plusHours(2).truncatedTo(ChronoUnit.HOURS);
+		jdbc.update("""
+				insert into consultas (medico_id, paciente_id, data_hora, motivo, situacao, criado_em)
+				values (?, ?, ?, ?, 'AGENDADA', now())
+				""", medicoId, pacienteId, Timestamp.valueOf(dataHora), MARCADOR);
+		consultaId = jdbc.queryForObject("select id from consultas where motivo = ?", Long.class, MARCADOR);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		jdbc.update("delete from lembretes_consulta where consulta_id = ?", consultaId);
+		jdbc.update("delete from consultas where motivo = ?", MARCADOR);
+		jdbc.update("delete from medicos where email like ?", "%@" + MARCADOR);
+		jdbc.update("delete from pacientes where email like ?", "%@" + MARCADOR);
+		Files.deleteIfExists(ARQUIVO);
+	}
+
+	@Test
+	void geraEnviaETentaDeNovoAposFalha() throws IOException {
+		lembretes.gerar();
+		assertEquals("PENDENTE", situacao());
+		// Nova varredura não duplica o lembrete
+		lembretes.gerar();
+		assertEquals(1, jdbc.queryForObject("select count(*) from lembretes_consulta where consulta_id = ?",
+				Integer.class, consultaId));
+
+		// Falha: fica pendente, com a tentativa contada e a próxima um minuto depois. O banco arredonda
+		// datetime para o segundo, então "agora" fica um segundo à frente da geração
+		var agora = LocalDateTime.now().plusSeconds(1).truncatedTo(ChronoUnit.SECONDS);
+		Files.createDirectory(ARQUIVO);
+		enviarTudo(agora);
+		assertEquals("PENDENTE", situacao());
+		assertEquals(1, coluna("tentativas", Integer.class));
+		assertEquals(agora.plusMinutes(1), coluna("proxima_tentativa", LocalDateTime.class));
+		assertNotNull(coluna("erro", String.class));
+
+		// Antes da espera, o lembrete não é reservado de novo
+		Files.delete(ARQUIVO);
+		enviarTudo(agora.plusSeconds(30));
+		assertEquals("PENDENTE", situacao());
+
+		enviarTudo(agora.plusMinutes(2));
+		assertEquals("ENVIADO", situacao());
+		assertEquals(2, coluna("tentativas", Integer.class));
+		assertTrue(Files.readAllLines(ARQUIVO).stream().anyMatch(linha -> linha.contains("\"consultaId\":" + consultaId)));
+	}
+
+	// Pode haver outros lembretes vencidos no banco: envia lotes até não restar nenhum vencido em "agora"
+	private void enviarTudo(LocalDateTime agora) {
+		int reservados;
+		do {
+			reservados = lembretes.enviarLote(agora);
+		} while (reservados > 0);
+	}
+
+	private String situacao() {
+		return coluna("situacao", String.class);
+	}
+
+	private <T> T coluna(String nome, Class<T> tipo) {
+		return jdbc.queryForObject("select " + nome + " from lembretes_consulta where consulta_id = ?", tipo, consultaId);
+	}
+}
@@ -0,0 +1,92 @@
+package com.medpro.medpro.service;
+
+import com.medpro.medpro.model.dto.DadosOcupacaoConsulta;
+import com.medpro.medpro.repository.ConsultaRepository;
+import com.medpro.medpro.service.regras.MotivoRejeicao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class OcupacaoAgendaTests {
+
+	private final LocalDateTime amanhaAsNove = LocalDate.now().plusDays(1).atTime(9, 0);
+
+	private ConsultaRepository consultaRepo;
+	private OcupacaoAgenda ocupacao;
+
+	@BeforeEach
+	void setUp() {
+		consultaRepo = mock(ConsultaRepository.class);
+		when(consultaRepo.listarOcupacaoAPartirDe(any()))
+				.thenReturn(List.of(new DadosOcupacaoConsulta(1L, 10L, amanhaAsNove)));
+		ocupacao = new OcupacaoAgenda(consultaRepo);
+		ocupacao.carregar();
+	}
+
+	@Test
+	void respondeOcupacaoSemConsultarOBanco() {
+		assertTrue(ocupacao.medicoOcupado(1L, amanhaAsNove));
+		assertFalse(ocupacao.medicoOcupado(1L, amanhaAsNove.plusHours(1)));
+		assertFalse(ocupacao.medicoOcupado(2L, amanhaAsNove));
+		assertTrue(ocupacao.pacientePossuiConsultaNoDia(10L, amanhaAsNove.withHour(15)));
+		assertFalse(ocupacao.pacientePossuiConsultaNoDia(10L, amanhaAsNove.plusDays(1)));
+
+		verify(consultaRepo).listarOcupacaoAPartirDe(any());
+		verifyNoMoreInteractions(consultaRepo);
+	}
+
+	@Test
+	void registrarELiberarAtualizamOIndice() {
+		var horario = amanhaAsNove.withHour(18);
+		ocupacao.registrar(2L, 20L, horario);
+		assertTrue(ocupacao.medicoOcupado(2L, horario));
+		assertTrue(ocupacao.pacientePossuiConsultaNoDia(20L, horario));
+
+		ocupacao.liberar(2L, 20L, horario);
+		assertFalse(ocupacao.medicoOcupado(2L, horario));
+		assertFalse(ocupacao.pacientePossuiConsultaNoDia(20L, horario));
+	}
+
+	@Test
+	void reservaSoPassaComHorarioLivre() {
+		var horario = amanhaAsNove.withHour(10);
+		assertNull(ocupacao.reservar(2L, 20L, horario));
+		assertEquals(MotivoRejeicao.MEDICO_OCUPADO, ocupacao.reservar(2L, 21L, horario));
+		assertEquals(MotivoRejeicao.PACIENTE_MESMO_DIA, ocupacao.reservar(3L, 20L, horario.withHour(14)));
+		// Recusada pelo paciente, a reserva não deixa o médico marcado
+		assertFalse(ocupacao.medicoOcupado(3L, horario.withHour(14)));
+		assertEquals(MotivoRejeicao.MEDICO_OCUPADO, ocupacao.reservar(1L, 21L, amanhaAsNove));
+	}
+
+	@Test
+	void devolucaoMantemOQueEstaGravado() {
+		var horario = amanhaAsNove.withHour(10);
+		assertNull(ocupacao.reservar(2L, 20L, horario));
+		assertNull(ocupacao.reservar(3L, 30L, horario));
+		// O médico 2 tem consulta gravada às 10:00 por outro paciente (agendamento síncrono concorrente)
+		when(consultaRepo.listarOcupacaoDe(any(), any(), any(), any()))
+				.thenReturn(List.of(new DadosOcupacaoConsulta(2L, 21L, horario)));
+
+		ocupacao.devolver(List.of(new DadosOcupacaoConsulta(2L, 20L, horario), new DadosOcupacaoConsulta(3L, 30L, horario)));
+
+		assertTrue(ocupacao.medicoOcupado(2L, horario));
+		assertFalse(ocupacao.pacientePossuiConsultaNoDia(20L, horario));
+		assertFalse(ocupacao.medicoOcupado(3L, horario));
+		assertFalse(ocupacao.pacientePossuiConsultaNoDia(30L, horario));
+		verify(consultaRepo, times(1)).listarOcupacaoDe(any(), any(), any(), any());
+	}
+}
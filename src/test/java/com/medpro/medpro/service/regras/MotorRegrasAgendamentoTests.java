@@ -0,0 +1,119 @@
+package com.medpro.medpro.service.regras;
+
+import com.medpro.medpro.enums.Especialidade;
+import com.medpro.medpro.model.dto.DadosOcupacaoConsulta;
+import com.medpro.medpro.repository.ConsultaRepository;
+import com.medpro.medpro.service.OcupacaoAgenda;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MotorRegrasAgendamentoTests {
+
+	// Paciente 10 já tem consulta com o médico 1 na próxima segunda às 09:00
+	private final LocalDateTime segundaAsNove = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atTime(9, 0);
+	private final LocalDateTime agora = segundaAsNove.minusDays(2);
+
+	private final AtomicInteger consultasCadastros = new AtomicInteger();
+	private MotorRegrasAgendamento regras;
+
+	@BeforeEach
+	void setUp() {
+		var consultaRepo = mock(ConsultaRepository.class);
+		when(consultaRepo.listarOcupacaoAPartirDe(any()))
+				.thenReturn(List.of(new DadosOcupacaoConsulta(1L, 10L, segundaAsNove)));
+		var ocupacao = new OcupacaoAgenda(consultaRepo);
+		ocupacao.carregar();
+
+		// Validadores de banco primeiro na lista: o motor deve reordená-los por custo
+		regras = new MotorRegrasAgendamento(List.of(
+				new ValidadorPacienteAtivo(),
+				new ValidadorMedicoAtivo(),
+				new ValidadorHorarioFuncionamento(),
+				new ValidadorDomingo(),
+				new ValidadorAntecedencia(),
+				new ValidadorEspecialidadeObrigatoria(),
+				new ValidadorPacienteNoDia(ocupacao),
+				new ValidadorMedicoOcupado(ocupacao)));
+	}
+
+	@Test
+	void regrasDeMemoriaRecusamAntesDeConsultarCadastros() {
+		assertEquals(MotivoRejeicao.HORARIO_FUNCIONAMENTO, regras.validar(contexto(20L, 2L, segundaAsNove.withHour(6), null)));
+		assertEquals(MotivoRejeicao.DOMINGO, regras.validar(contexto(20L, 2L, segundaAsNove.minusDays(1), null)));
+		assertEquals(MotivoRejeicao.ANTECEDENCIA, regras.validar(new ContextoAgendamento(20L, 2L, segundaAsNove, null,
+				segundaAsNove.minusMinutes(10), cadastros(true, true))));
+		assertEquals(MotivoRejeicao.ESPECIALIDADE_OBRIGATORIA, regras.validar(contexto(20L, null, segundaAsNove, null)));
+		assertEquals(MotivoRejeicao.PACIENTE_MESMO_DIA, regras.validar(contexto(10L, 2L, segundaAsNove.withHour(15), null)));
+		assertEquals(MotivoRejeicao.MEDICO_OCUPADO, regras.validar(contexto(20L, 1L, segundaAsNove, null)));
+
+		assertEquals(0, consultasCadastros.get());
+	}
+
+	@Test
+	void regrasDeBancoConsultamCadastrosUmaVez() {
+		assertEquals(MotivoRejeicao.PACIENTE_NAO_ENCONTRADO, regras.validar(contexto(20L, 2L, segundaAsNove, cadastros(null, true))));
+		assertEquals(MotivoRejeicao.PACIENTE_INATIVO, regras.validar(contexto(20L, 2L, segundaAsNove, cadastros(false, true))));
+		assertEquals(MotivoRejeicao.MEDICO_NAO_ENCONTRADO, regras.validar(contexto(20L, 2L, segundaAsNove, cadastros(true, null))));
+		assertEquals(MotivoRejeicao.MEDICO_INATIVO, regras.validar(contexto(20L, 2L, segundaAsNove, cadastros(true, false))));
+		assertEquals(4, consultasCadastros.get());
+
+		consultasCadastros.set(0);
+		assertNull(regras.validar(contexto(20L, 2L, segundaAsNove, cadastros(true, true))));
+		assertNull(regras.validar(new ContextoAgendamento(20L, null, segundaAsNove, Especialidade.CARDIOLOGIA, agora,
+				cadastros(true, null))));
+		assertEquals(2, consultasCadastros.get());
+	}
+
+	@Test
+	void validarPorCustoRodaSoOsValidadoresDaqueleCusto() {
+		var recusadoNosDois = contexto(20L, 1L, segundaAsNove, cadastros(false, true));
+
+		assertEquals(MotivoRejeicao.MEDICO_OCUPADO, regras.validar(recusadoNosDois, CustoValidacao.MEMORIA));
+		assertEquals(0, consultasCadastros.get());
+		assertEquals(MotivoRejeicao.PACIENTE_INATIVO, regras.validar(recusadoNosDois, CustoValidacao.BANCO));
+	}
+
+	@Test
+	void reagendamentoIgnoraRegrasDoPacienteEDaEspecialidade() {
+		// Paciente inativo e sem especialidade: só valem horário e médico
+		var mesmoDia = ContextoAgendamento.reagendamento(10L, 1L, segundaAsNove, segundaAsNove.withHour(15), agora,
+				cadastros(false, true));
+		assertNull(regras.validarReagendamento(mesmoDia));
+
+		var outroDia = ContextoAgendamento.reagendamento(10L, 2L, segundaAsNove.plusDays(1), segundaAsNove.withHour(16), agora,
+				cadastros(true, true));
+		assertEquals(MotivoRejeicao.PACIENTE_MESMO_DIA, regras.validarReagendamento(outroDia));
+
+		var medicoOcupado = ContextoAgendamento.reagendamento(20L, 1L, segundaAsNove.plusDays(1), segundaAsNove, agora,
+				cadastros(true, true));
+		assertEquals(MotivoRejeicao.MEDICO_OCUPADO, regras.validarReagendamento(medicoOcupado));
+
+		var medicoInativo = ContextoAgendamento.reagendamento(20L, 2L, segundaAsNove.plusDays(1), segundaAsNove, agora,
+				cadastros(true, false));
+		assertEquals(MotivoRejeicao.MEDICO_INATIVO, regras.validarReagendamento(medicoInativo));
+	}
+
+	private ContextoAgendamento contexto(Long pacienteId, Long medicoId, LocalDateTime dataHora, FonteCadastros fonte) {
+		return new ContextoAgendamento(pacienteId, medicoId, dataHora, null, agora, fonte != null ? fonte : cadastros(true, true));
+	}
+
+	private FonteCadastros cadastros(Boolean pacienteAtivo, Boolean medicoAtivo) {
+		return (pacienteId, medicoId) -> {
+			consultasCadastros.incrementAndGet();
+			return new SituacaoCadastros(pacienteAtivo, medicoAtivo, Especialidade.CARDIOLOGIA);
+		};
+	}
+}